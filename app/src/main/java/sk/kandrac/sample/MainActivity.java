@@ -1,5 +1,6 @@
 package sk.kandrac.sample;
 
+import android.content.Intent;
 import android.support.v7.app.ActionBarActivity;
 import android.os.Bundle;
 import android.view.View;
@@ -27,6 +28,12 @@ public class MainActivity extends ActionBarActivity implements SeekBar.OnSeekBar
         circularView.addItem(negative, 2, getResources().getColor(R.color.green));
         circularView.addItem("unknown", 3, getResources().getColor(R.color.orange));
 
+        circularView.setItemIcon(positive, R.drawable.place);
+        circularView.setItemIcon(negative, R.drawable.event);
+        circularView.setItemIcon("unknown", R.drawable.info);
+        circularView.setItemLabel(negative, negative);
+        circularView.setItemLabel("unknown", "unknown");
+
         circularView.invalidate();
 
         seekBar = (SeekBar) findViewById(R.id.seekBar);
@@ -37,6 +44,10 @@ public class MainActivity extends ActionBarActivity implements SeekBar.OnSeekBar
         circularView.addItemScore(positive, 1f);
     }
 
+    public void openStressTest(View view) {
+        startActivity(new Intent(this, StressActivity.class));
+    }
+
     public void circleClick(View view) {
     }
 
@@ -0,0 +1,114 @@
+package sk.kandrac.sample;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+
+import java.util.Random;
+
+import sk.kandrac.circularview.ArcRingRenderer;
+import sk.kandrac.circularview.AutoRingRenderer;
+import sk.kandrac.circularview.CircularRenderer;
+import sk.kandrac.circularview.PictureRingRenderer;
+import sk.kandrac.circularview.RingRenderer;
+import sk.kandrac.circularview.RingSnapshot;
+import sk.kandrac.circularview.ShaderRingRenderer;
+
+/**
+ * Measures how long each ring renderer takes to draw rotating ring with growing count of slices
+ * and derives thresholds for {@link AutoRingRenderer#setThresholds(int, int)}. Rings are drawn into
+ * bitmap (software canvas), which is how CircularView draws by default (software layer). May run
+ * on any thread.
+ */
+class RendererCalibration {
+
+    // counts of slices measured
+    static final int[] COUNTS = {8, 16, 32, 64, 128, 256, 512, 1024, 2048, 4096, 8192, 16384};
+
+    // count of measured frames per renderer and count of slices
+    private static final int FRAMES = 20;
+
+    private static final int ARC = 0;
+    private static final int PICTURE = 1;
+    private static final int SHADER = 2;
+
+    private final int size;
+    private final int outerWidth;
+
+    // average time of single frame in nanoseconds [renderer][count index]
+    final long[][] frameNanos = new long[3][COUNTS.length];
+
+    int arcMaxSlices;
+    int pictureMaxSlices;
+
+    /**
+     * @param size       width and height of measured ring
+     * @param outerWidth width of outer circle
+     */
+    RendererCalibration(int size, int outerWidth) {
+        this.size = size;
+        this.outerWidth = outerWidth;
+    }
+
+    /**
+     * Measure all renderers and compute thresholds: arc renderer is used while it is the fastest
+     * one, then picture renderer while it is faster than shader renderer.
+     */
+    void run() {
+        final Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        final Random random = new Random(0);
+        final float[] hsv = new float[]{0, 0.7f, 0.9f};
+
+        for (int c = 0; c < COUNTS.length; c++) {
+            RingSnapshot snapshot = new RingSnapshot(COUNTS[c]);
+            for (int i = 0; i < COUNTS[c]; i++) {
+                hsv[0] = 360f * i / COUNTS[c];
+                snapshot.add(1 + random.nextFloat(), Color.HSVToColor(hsv));
+            }
+            RingRenderer[] renderers = new RingRenderer[]{
+                    new ArcRingRenderer(), new PictureRingRenderer(), new ShaderRingRenderer()};
+            for (int r = 0; r < renderers.length; r++) {
+                frameNanos[r][c] = measure(renderers[r], snapshot, bitmap);
+            }
+        }
+        bitmap.recycle();
+
+        int index = 0;
+        arcMaxSlices = 0;
+        while (index < COUNTS.length && frameNanos[ARC][index] <= frameNanos[PICTURE][index]
+                && frameNanos[ARC][index] <= frameNanos[SHADER][index]) {
+            arcMaxSlices = COUNTS[index++];
+        }
+        pictureMaxSlices = arcMaxSlices;
+        while (index < COUNTS.length && frameNanos[PICTURE][index] <= frameNanos[SHADER][index]) {
+            pictureMaxSlices = COUNTS[index++];
+        }
+    }
+
+    /**
+     * @return average time of one frame of rotating ring (first frame preparing caches excluded)
+     */
+    private long measure(RingRenderer ringRenderer, RingSnapshot snapshot, Bitmap bitmap) {
+        CircularRenderer renderer = new CircularRenderer(outerWidth, Color.GRAY);
+        renderer.setRingRenderer(ringRenderer);
+        renderer.render(snapshot.setScroll(0), bitmap);
+
+        long start = System.nanoTime();
+        for (int frame = 1; frame <= FRAMES; frame++) {
+            renderer.render(snapshot.setScroll(frame * 7), bitmap);
+        }
+        return (System.nanoTime() - start) / FRAMES;
+    }
+
+    /**
+     * @return table of measured frame times in milliseconds and derived thresholds
+     */
+    String getReport() {
+        StringBuilder report = new StringBuilder("slices  arc  picture  shader (ms)\n");
+        for (int c = 0; c < COUNTS.length; c++) {
+            report.append(String.format("%6d %5.2f %7.2f %7.2f\n", COUNTS[c],
+                    frameNanos[ARC][c] / 1e6, frameNanos[PICTURE][c] / 1e6, frameNanos[SHADER][c] / 1e6));
+        }
+        report.append(String.format("thresholds: arc <= %d, picture <= %d", arcMaxSlices, pictureMaxSlices));
+        return report.toString();
+    }
+}
@@ -0,0 +1,468 @@
+package sk.kandrac.sample;
+
+import android.annotation.TargetApi;
+import android.graphics.Color;
+import android.os.Build;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.Handler;
+import android.support.v7.app.ActionBarActivity;
+import android.view.Choreographer;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.Button;
+import android.widget.CheckBox;
+import android.widget.CompoundButton;
+import android.widget.FrameLayout;
+import android.widget.ImageView;
+import android.widget.SeekBar;
+import android.widget.TextView;
+
+import java.util.Random;
+
+import sk.kandrac.circularview.ArcRingRenderer;
+import sk.kandrac.circularview.AutoRingRenderer;
+import sk.kandrac.circularview.CircularView;
+import sk.kandrac.circularview.PictureRingRenderer;
+import sk.kandrac.circularview.RingRenderer;
+import sk.kandrac.circularview.ShaderRingRenderer;
+
+/**
+ * Load generator for CircularView. Displays configurable count of items updated from background
+ * threads at configurable rate, optionally flings the circle automatically and shows frame time,
+ * dropped frames and allocation counts, so performance regressions can be reproduced.
+ */
+public class StressActivity extends ActionBarActivity implements SeekBar.OnSeekBarChangeListener,
+        CompoundButton.OnCheckedChangeListener {
+
+    // interval of statistics refresh, updates application and automatic flings (in ms)
+    private static final long STATS_INTERVAL = 500;
+    private static final long UPDATE_INTERVAL = 16;
+    private static final long FLING_INTERVAL = 3000;
+
+    private static final int FLING_VELOCITY = 3000;
+    private static final int TOP_ITEM_COUNT = 10;
+    private static final long FRAME_NANOS = 16666667;
+
+    FrameLayout circleContainer;
+    CircularView circularView;
+    TextView stats;
+    TextView countLabel;
+    TextView rateLabel;
+    TextView threadsLabel;
+    SeekBar countBar;
+    SeekBar rateBar;
+    SeekBar threadsBar;
+    CheckBox autoFling;
+    CheckBox sorted;
+    CheckBox topItems;
+    CheckBox labels;
+    CheckBox renderThread;
+    Button rendererButton;
+
+    // ring renderers to switch between (automatic selection is calibrated by calibrate button)
+    final AutoRingRenderer autoRenderer = new AutoRingRenderer();
+    final RingRenderer[] renderers = new RingRenderer[]{
+            autoRenderer, new ArcRingRenderer(), new PictureRingRenderer(), new ShaderRingRenderer()};
+    boolean calibrating;
+    int rendererIndex;
+
+    // items displayed in circle (boxed once so no allocation happens on updates)
+    Integer[] items = new Integer[0];
+
+    // score additions produced by update threads and not yet applied to view
+    final Object pendingLock = new Object();
+    float[] pendingScores = new float[0];
+    int[] pendingIndices = new int[0];
+    int pendingCount;
+
+    UpdateThread[] updateThreads = new UpdateThread[0];
+    final Handler handler = new Handler();
+    FrameMonitor frameMonitor;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_stress);
+
+        circleContainer = (FrameLayout) findViewById(R.id.circleContainer);
+        stats = (TextView) findViewById(R.id.stats);
+        countLabel = (TextView) findViewById(R.id.countLabel);
+        rateLabel = (TextView) findViewById(R.id.rateLabel);
+        threadsLabel = (TextView) findViewById(R.id.threadsLabel);
+        countBar = (SeekBar) findViewById(R.id.count);
+        rateBar = (SeekBar) findViewById(R.id.rate);
+        threadsBar = (SeekBar) findViewById(R.id.threads);
+        autoFling = (CheckBox) findViewById(R.id.autoFling);
+        sorted = (CheckBox) findViewById(R.id.sorted);
+        topItems = (CheckBox) findViewById(R.id.topItems);
+        labels = (CheckBox) findViewById(R.id.labels);
+        renderThread = (CheckBox) findViewById(R.id.renderThread);
+        rendererButton = (Button) findViewById(R.id.renderer);
+
+        countBar.setOnSeekBarChangeListener(this);
+        rateBar.setOnSeekBarChangeListener(this);
+        threadsBar.setOnSeekBarChangeListener(this);
+        autoFling.setOnCheckedChangeListener(this);
+        sorted.setOnCheckedChangeListener(this);
+        topItems.setOnCheckedChangeListener(this);
+        labels.setOnCheckedChangeListener(this);
+        renderThread.setOnCheckedChangeListener(this);
+        renderThread.setEnabled(Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN_MR2);
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN)
+            frameMonitor = new FrameMonitor();
+
+        rebuildItems();
+        updateLabels();
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+        startUpdateThreads();
+        handler.postDelayed(applyUpdates, UPDATE_INTERVAL);
+        handler.postDelayed(refreshStats, STATS_INTERVAL);
+        handler.postDelayed(fling, FLING_INTERVAL);
+        if (frameMonitor != null) frameMonitor.start();
+        Debug.startAllocCounting();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        Debug.stopAllocCounting();
+        if (frameMonitor != null) frameMonitor.stop();
+        handler.removeCallbacks(applyUpdates);
+        handler.removeCallbacks(refreshStats);
+        handler.removeCallbacks(fling);
+        stopUpdateThreads();
+    }
+
+    //////////////////////////////////////////////
+    // CONFIGURATION                            //
+    //////////////////////////////////////////////
+
+    /**
+     * @return count of items selected by count seek bar (logarithmic scale from 10 to 100 000)
+     */
+    private int getItemCount() {
+        return (int) Math.round(10 * Math.pow(10, countBar.getProgress() / 250.0));
+    }
+
+    /**
+     * @return count of score updates per second selected by rate seek bar
+     */
+    private int getUpdateRate() {
+        return rateBar.getProgress() * 100;
+    }
+
+    private int getThreadCount() {
+        return threadsBar.getProgress() + 1;
+    }
+
+    private void updateLabels() {
+        countLabel.setText("Items: " + getItemCount());
+        rateLabel.setText("Updates per second: " + getUpdateRate());
+        threadsLabel.setText("Update threads: " + getThreadCount());
+        rendererButton.setText("Renderer: " + getRendererName(renderers[rendererIndex]));
+    }
+
+    private String getRendererName(RingRenderer renderer) {
+        if (renderer == autoRenderer) return "automatic";
+        return renderer != null ? renderer.getClass().getSimpleName() : "none";
+    }
+
+    /**
+     * Replace circular view with new one containing currently selected count of items. Sorting is
+     * applied after all items are added, so items are sorted at once.
+     */
+    private void rebuildItems() {
+        final int count = getItemCount();
+        synchronized (pendingLock) {
+            items = new Integer[count];
+            pendingScores = new float[count];
+            pendingIndices = new int[count];
+            pendingCount = 0;
+        }
+
+        if (circularView == null) {
+            circularView = new CircularView(this);
+            circularView.setOuterWidth((int) (40 * getResources().getDisplayMetrics().density));
+            ImageView image = new ImageView(this);
+            image.setImageResource(R.drawable.adele);
+            circularView.addView(image);
+            circleContainer.addView(circularView, new FrameLayout.LayoutParams(
+                    ViewGroup.LayoutParams.MATCH_PARENT, ViewGroup.LayoutParams.MATCH_PARENT));
+        } else {
+            // view and its buffers are reused
+            circularView.clearItems();
+        }
+
+        float[] hsv = new float[]{0, 0.7f, 0.9f};
+        for (int i = 0; i < count; i++) {
+            items[i] = i;
+            hsv[0] = 360f * i / count;
+            circularView.addItem(items[i], 1, Color.HSVToColor(hsv));
+        }
+        applyModes();
+    }
+
+    private void applyModes() {
+        circularView.setSortedByScore(sorted.isChecked());
+        circularView.setTopItemCount(topItems.isChecked() ? TOP_ITEM_COUNT : 0);
+        circularView.setRenderThreadEnabled(renderThread.isChecked());
+        circularView.setRingRenderer(renderers[rendererIndex]);
+        for (int i = 0; i < items.length; i++) {
+            circularView.setItemLabel(items[i], labels.isChecked() ? "#" + i : null);
+            if (labels.isChecked()) circularView.setItemIcon(items[i], R.drawable.place);
+            else circularView.setItemIcon(items[i], null);
+        }
+    }
+
+    /**
+     * Time every renderer on this device on background thread and use measured thresholds for
+     * automatic renderer selection.
+     */
+    public void calibrate(View view) {
+        if (calibrating) return;
+        calibrating = true;
+        final Button button = (Button) view;
+        button.setText("Calibrating...");
+        final int size = Math.min(circleContainer.getWidth(), circleContainer.getHeight());
+        final RendererCalibration calibration = new RendererCalibration(Math.max(size, 100),
+                (int) (40 * getResources().getDisplayMetrics().density));
+        new Thread("RendererCalibration") {
+            @Override
+            public void run() {
+                calibration.run();
+                handler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        calibrating = false;
+                        autoRenderer.setThresholds(calibration.arcMaxSlices, calibration.pictureMaxSlices);
+                        button.setText(calibration.getReport());
+                    }
+                });
+            }
+        }.start();
+    }
+
+    public void nextRenderer(View view) {
+        rendererIndex = (rendererIndex + 1) % renderers.length;
+        circularView.setRingRenderer(renderers[rendererIndex]);
+        updateLabels();
+    }
+
+    @Override
+    public void onProgressChanged(SeekBar seekBar, int progress, boolean fromUser) {
+        updateLabels();
+    }
+
+    @Override
+    public void onStartTrackingTouch(SeekBar seekBar) {
+    }
+
+    @Override
+    public void onStopTrackingTouch(SeekBar seekBar) {
+        if (seekBar == countBar) {
+            stopUpdateThreads();
+            rebuildItems();
+            startUpdateThreads();
+        } else {
+            stopUpdateThreads();
+            startUpdateThreads();
+        }
+    }
+
+    @Override
+    public void onCheckedChanged(CompoundButton button, boolean checked) {
+        if (button == autoFling) return;
+        if (button == labels) applyModes();
+        else if (button == sorted) circularView.setSortedByScore(checked);
+        else if (button == topItems) circularView.setTopItemCount(checked ? TOP_ITEM_COUNT : 0);
+        else if (button == renderThread) circularView.setRenderThreadEnabled(checked);
+    }
+
+    //////////////////////////////////////////////
+    // LOAD GENERATION                          //
+    //////////////////////////////////////////////
+
+    /**
+     * Thread producing random score additions at given rate. Additions are only collected, they
+     * are applied to the view on UI thread in {@link #applyUpdates}.
+     */
+    private class UpdateThread extends Thread {
+
+        private final long intervalNanos;
+        private final Random random = new Random();
+        private volatile boolean running = true;
+
+        UpdateThread(int updatesPerSecond) {
+            super("StressUpdate");
+            this.intervalNanos = 1000000000L / updatesPerSecond;
+        }
+
+        @Override
+        public void run() {
+            long next = System.nanoTime();
+            while (running) {
+                synchronized (pendingLock) {
+                    if (items.length > 0) {
+                        int index = random.nextInt(items.length);
+                        if (pendingScores[index] == 0) pendingIndices[pendingCount++] = index;
+                        pendingScores[index] += random.nextFloat();
+                        updatesGenerated++;
+                    }
+                }
+                next += intervalNanos;
+                long sleep = next - System.nanoTime();
+                if (sleep > 0) {
+                    try {
+                        Thread.sleep(sleep / 1000000, (int) (sleep % 1000000));
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+            }
+        }
+
+        void finish() {
+            running = false;
+            interrupt();
+        }
+    }
+
+    private void startUpdateThreads() {
+        final int rate = getUpdateRate();
+        if (rate == 0) return;
+        final int threads = getThreadCount();
+        updateThreads = new UpdateThread[threads];
+        for (int i = 0; i < threads; i++) {
+            updateThreads[i] = new UpdateThread(Math.max(1, rate / threads));
+            updateThreads[i].start();
+        }
+    }
+
+    private void stopUpdateThreads() {
+        for (UpdateThread thread : updateThreads) {
+            thread.finish();
+        }
+        updateThreads = new UpdateThread[0];
+    }
+
+    // applies collected score additions to the view
+    private final Runnable applyUpdates = new Runnable() {
+        @Override
+        public void run() {
+            synchronized (pendingLock) {
+                for (int i = 0; i < pendingCount; i++) {
+                    int index = pendingIndices[i];
+                    circularView.addItemScore(items[index], pendingScores[index]);
+                    pendingScores[index] = 0;
+                }
+                updatesApplied += pendingCount;
+                pendingCount = 0;
+            }
+            handler.postDelayed(this, UPDATE_INTERVAL);
+        }
+    };
+
+    private final Runnable fling = new Runnable() {
+        boolean clockwise;
+
+        @Override
+        public void run() {
+            if (autoFling.isChecked()) {
+                clockwise = !clockwise;
+                circularView.fling(clockwise ? FLING_VELOCITY : -FLING_VELOCITY);
+            }
+            handler.postDelayed(this, FLING_INTERVAL);
+        }
+    };
+
+    //////////////////////////////////////////////
+    // STATISTICS                               //
+    //////////////////////////////////////////////
+    // score updates generated by update threads and item score changes applied to view after
+    // merging updates of the same item (both guarded by pendingLock)
+    int updatesGenerated;
+    int updatesApplied;
+
+    /**
+     * Measures time between frames of UI thread.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private class FrameMonitor implements Choreographer.FrameCallback {
+
+        long lastFrame;
+        int frames;
+        long totalNanos;
+        long maxNanos;
+        int droppedFrames;
+
+        void start() {
+            lastFrame = 0;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        void stop() {
+            Choreographer.getInstance().removeFrameCallback(this);
+        }
+
+        void reset() {
+            frames = 0;
+            totalNanos = 0;
+            maxNanos = 0;
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            if (lastFrame > 0) {
+                long frameNanos = frameTimeNanos - lastFrame;
+                frames++;
+                totalNanos += frameNanos;
+                maxNanos = Math.max(maxNanos, frameNanos);
+                droppedFrames += Math.max(0, Math.round((double) frameNanos / FRAME_NANOS) - 1);
+            }
+            lastFrame = frameTimeNanos;
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private final Runnable refreshStats = new Runnable() {
+        @Override
+        public void run() {
+            int allocations = Debug.getGlobalAllocCount();
+            int allocatedBytes = Debug.getGlobalAllocSize();
+            Debug.resetGlobalAllocCount();
+            Debug.resetGlobalAllocSize();
+
+            StringBuilder text = new StringBuilder();
+            if (frameMonitor != null && frameMonitor.frames > 0) {
+                text.append(String.format("frame avg %.1f ms, max %.1f ms, dropped total %d\n",
+                        frameMonitor.totalNanos / frameMonitor.frames / 1e6,
+                        frameMonitor.maxNanos / 1e6,
+                        frameMonitor.droppedFrames));
+                frameMonitor.reset();
+            } else {
+                text.append("frame time not available\n");
+            }
+            text.append(String.format("allocations %d (%d kB) per %d ms\n",
+                    allocations, allocatedBytes / 1024, STATS_INTERVAL));
+            synchronized (pendingLock) {
+                text.append(String.format("updates %d (%d items changed) per %d ms, idle %b",
+                        updatesGenerated, updatesApplied, STATS_INTERVAL, circularView.isIdle()));
+                updatesGenerated = 0;
+                updatesApplied = 0;
+            }
+            RingRenderer renderer = circularView.getRingRenderer();
+            if (renderer instanceof AutoRingRenderer) {
+                text.append(", drawn by ").append(getRendererName(((AutoRingRenderer) renderer).getLastRenderer()));
+            }
+            stats.setText(text);
+
+            handler.postDelayed(this, STATS_INTERVAL);
+        }
+    };
+}
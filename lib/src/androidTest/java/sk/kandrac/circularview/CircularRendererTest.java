@@ -0,0 +1,78 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Bitmap;
+import android.graphics.Color;
+import android.test.AndroidTestCase;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Renders into bitmaps, so it needs Android graphics (device or emulator).
+ */
+public class CircularRendererTest extends AndroidTestCase {
+
+    private static final int SIZE = 100;
+
+    private CircularRenderer renderer;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        renderer = new CircularRenderer(10, Color.GRAY);
+    }
+
+    public void testRenderDrawsSlicesClockwiseFromThreeOClock() {
+        // first slice covers bottom half, second one top half
+        RingSnapshot snapshot = new RingSnapshot().add(1, Color.RED).add(1, Color.BLUE);
+        Bitmap bitmap = renderer.render(snapshot, SIZE, null);
+
+        assertEquals(Color.RED, bitmap.getPixel(SIZE / 2, SIZE - 5));
+        assertEquals(Color.BLUE, bitmap.getPixel(SIZE / 2, 5));
+        assertEquals(Color.TRANSPARENT, bitmap.getPixel(SIZE / 2, SIZE / 2));
+    }
+
+    public void testRenderAppliesScroll() {
+        RingSnapshot snapshot = new RingSnapshot().add(1, Color.RED).add(1, Color.BLUE).setScroll(180);
+        Bitmap bitmap = renderer.render(snapshot, SIZE, null);
+
+        assertEquals(Color.BLUE, bitmap.getPixel(SIZE / 2, SIZE - 5));
+        assertEquals(Color.RED, bitmap.getPixel(SIZE / 2, 5));
+    }
+
+    public void testRenderWithoutItemsDrawsDefaultColor() {
+        Bitmap bitmap = renderer.render(new RingSnapshot(), SIZE, null);
+
+        assertEquals(Color.GRAY, bitmap.getPixel(SIZE / 2, 5));
+    }
+
+    public void testRenderReusesMatchingBitmap() {
+        RingSnapshot snapshot = new RingSnapshot().add(1, Color.RED);
+        Bitmap bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+
+        assertSame(bitmap, renderer.render(snapshot, SIZE, bitmap));
+        assertNotSame(bitmap, renderer.render(snapshot, SIZE * 2, bitmap));
+    }
+
+    public void testRenderBatchRendersEverySnapshotIntoBuffer() {
+        final List<RingSnapshot> snapshots = Arrays.asList(
+                new RingSnapshot().add(1, Color.RED),
+                new RingSnapshot().add(1, Color.BLUE),
+                new RingSnapshot().add(1, Color.GREEN));
+        final Bitmap buffer = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        final List<Integer> colors = new ArrayList<Integer>();
+
+        renderer.renderBatch(snapshots, buffer, new CircularRenderer.BatchCallback() {
+            @Override
+            public void onRendered(int index, RingSnapshot snapshot, Bitmap bitmap) {
+                assertSame(snapshots.get(index), snapshot);
+                assertSame(buffer, bitmap);
+                assertEquals(colors.size(), index);
+                colors.add(bitmap.getPixel(SIZE / 2, 5));
+            }
+        });
+
+        assertEquals(Arrays.asList(Color.RED, Color.BLUE, Color.GREEN), colors);
+    }
+}
@@ -0,0 +1,134 @@
+package sk.kandrac.circularview;
+
+import android.os.SystemClock;
+import android.test.InstrumentationTestCase;
+import android.test.UiThreadTest;
+import android.view.MotionEvent;
+import android.view.View;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Dispatches touch streams to laid out view, so it needs device or emulator. View of size 300 with
+ * outer width 50 has center at 150, inner radius 102 and outer radius 150; the child is laid out
+ * to rectangle from 48 to 252.
+ */
+public class CircularViewTouchTest extends InstrumentationTestCase {
+
+    private static final int SIZE = 300;
+    private static final int OUTER_WIDTH = 50;
+
+    private CircularView view;
+    private final List<Integer> childActions = new ArrayList<Integer>();
+    private long downTime;
+    private long eventTime;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        view = new CircularView(getInstrumentation().getTargetContext());
+        View child = new View(getInstrumentation().getTargetContext());
+        child.setOnTouchListener(new View.OnTouchListener() {
+            @Override
+            public boolean onTouch(View v, MotionEvent event) {
+                childActions.add(event.getActionMasked());
+                return true;
+            }
+        });
+        view.addView(child);
+        view.setOuterWidth(OUTER_WIDTH);
+        final int spec = View.MeasureSpec.makeMeasureSpec(SIZE, View.MeasureSpec.EXACTLY);
+        view.measure(spec, spec);
+        view.layout(0, 0, SIZE, SIZE);
+    }
+
+    @UiThreadTest
+    public void testGetTouchRegion() {
+        assertEquals(RingTouchClassifier.INNER, view.getTouchRegion(150, 150));
+        assertEquals(RingTouchClassifier.INNER, view.getTouchRegion(150, 49));
+        assertEquals(RingTouchClassifier.RING, view.getTouchRegion(150, 20));
+        assertEquals(RingTouchClassifier.RING, view.getTouchRegion(50, 50));
+        assertEquals(RingTouchClassifier.GAP, view.getTouchRegion(5, 5));
+        assertEquals(RingTouchClassifier.GAP, view.getTouchRegion(295, 295));
+        assertEquals(RingTouchClassifier.OUTSIDE, view.getTouchRegion(-1, 150));
+        assertEquals(RingTouchClassifier.OUTSIDE, view.getTouchRegion(150, SIZE));
+    }
+
+    @UiThreadTest
+    public void testInnerTouchReachesChild() {
+        assertTrue(touch(MotionEvent.ACTION_DOWN, 150, 150));
+        assertTrue(touch(MotionEvent.ACTION_MOVE, 170, 160));
+        assertTrue(touch(MotionEvent.ACTION_UP, 170, 160));
+
+        assertEquals(Arrays.asList(MotionEvent.ACTION_DOWN, MotionEvent.ACTION_MOVE, MotionEvent.ACTION_UP),
+                childActions);
+    }
+
+    @UiThreadTest
+    public void testRingTouchIsConsumedByView() {
+        assertTrue(touch(MotionEvent.ACTION_DOWN, 150, 20));
+        assertTrue(touch(MotionEvent.ACTION_MOVE, 200, 28));
+        assertTrue(touch(MotionEvent.ACTION_MOVE, 240, 50));
+        assertTrue(touch(MotionEvent.ACTION_UP, 240, 50));
+
+        assertTrue(childActions.isEmpty());
+    }
+
+    @UiThreadTest
+    public void testCornerOfChildIsInterceptedAsRing() {
+        // (50, 50) lies in rectangle of the child, but outside of inner circle
+        assertTrue(touch(MotionEvent.ACTION_DOWN, 50, 50));
+        assertTrue(touch(MotionEvent.ACTION_UP, 50, 50));
+
+        assertTrue(childActions.isEmpty());
+    }
+
+    @UiThreadTest
+    public void testGapTouchIsNotDispatched() {
+        assertFalse(touch(MotionEvent.ACTION_DOWN, 5, 5));
+        assertFalse(touch(MotionEvent.ACTION_DOWN, 295, 295));
+        assertFalse(touch(MotionEvent.ACTION_DOWN, 295, 5));
+
+        assertTrue(childActions.isEmpty());
+    }
+
+    @UiThreadTest
+    public void testOutsideTouchIsNotDispatched() {
+        assertFalse(touch(MotionEvent.ACTION_DOWN, -10, 150));
+        assertFalse(touch(MotionEvent.ACTION_DOWN, 150, SIZE + 10));
+
+        assertTrue(childActions.isEmpty());
+    }
+
+    @UiThreadTest
+    public void testInnerTouchAfterRingTouchReachesChild() {
+        touch(MotionEvent.ACTION_DOWN, 150, 20);
+        touch(MotionEvent.ACTION_UP, 150, 20);
+
+        assertTrue(touch(MotionEvent.ACTION_DOWN, 150, 150));
+        assertTrue(touch(MotionEvent.ACTION_UP, 150, 150));
+        assertEquals(Arrays.asList(MotionEvent.ACTION_DOWN, MotionEvent.ACTION_UP), childActions);
+    }
+
+    /**
+     * Dispatch single event of touch stream, down starts new stream.
+     *
+     * @return result of dispatch
+     */
+    private boolean touch(int action, float x, float y) {
+        if (action == MotionEvent.ACTION_DOWN) {
+            downTime = SystemClock.uptimeMillis();
+            eventTime = downTime;
+        } else {
+            eventTime += 16;
+        }
+        MotionEvent event = MotionEvent.obtain(downTime, eventTime, action, x, y, 0);
+        try {
+            return view.dispatchTouchEvent(event);
+        } finally {
+            event.recycle();
+        }
+    }
+}
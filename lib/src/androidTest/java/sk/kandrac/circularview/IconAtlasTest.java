@@ -0,0 +1,60 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Color;
+import android.graphics.Rect;
+import android.graphics.drawable.ColorDrawable;
+import android.test.AndroidTestCase;
+
+public class IconAtlasTest extends AndroidTestCase {
+
+    private IconAtlas atlas;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        atlas = new IconAtlas(16);
+    }
+
+    public void testSameKeySharesCell() {
+        int first = atlas.add("a", new ColorDrawable(Color.RED));
+        int second = atlas.add("a", new ColorDrawable(Color.BLUE));
+
+        assertEquals(first, second);
+        assertEquals(1, atlas.getCount());
+    }
+
+    public void testReleasedCellIsReused() {
+        int first = atlas.add("a", new ColorDrawable(Color.RED));
+        atlas.acquire("a");
+
+        atlas.release(first);
+        assertEquals(first, atlas.indexOf("a"));
+
+        atlas.release(first);
+        assertEquals(-1, atlas.indexOf("a"));
+        assertEquals(0, atlas.getCount());
+
+        assertEquals(first, atlas.add("b", new ColorDrawable(Color.BLUE)));
+    }
+
+    public void testAcquireOfMissingKeyAddsNothing() {
+        assertEquals(-1, atlas.acquire("missing"));
+        assertEquals(0, atlas.getCount());
+    }
+
+    public void testDrawableBoundsAreRestored() {
+        ColorDrawable drawable = new ColorDrawable(Color.RED);
+        drawable.setBounds(1, 2, 3, 4);
+
+        atlas.add(drawable);
+        assertEquals(new Rect(1, 2, 3, 4), drawable.getBounds());
+    }
+
+    public void testAtlasDoesNotGrowWhenIconsAreReplaced() {
+        for (int i = 0; i < 100; i++) {
+            int index = atlas.add(new ColorDrawable(Color.RED));
+            atlas.release(index);
+        }
+        assertEquals(0, atlas.add(new ColorDrawable(Color.RED)));
+    }
+}
@@ -0,0 +1,68 @@
+package sk.kandrac.circularview;
+
+import junit.framework.TestCase;
+
+public class RingGeometryTest extends TestCase {
+
+    private static RingGeometry slices(float... scores) {
+        RingGeometry geometry = new RingGeometry();
+        geometry.setSlices(scores, scores.length);
+        return geometry;
+    }
+
+    public void testSetSlicesSplitsCircleByScore() {
+        RingGeometry geometry = slices(1, 1, 2);
+
+        assertEquals(3, geometry.getSliceCount());
+        assertEquals(0f, geometry.getStartAngle(0), 0.001f);
+        assertEquals(90f, geometry.getStartAngle(1), 0.001f);
+        assertEquals(180f, geometry.getStartAngle(2), 0.001f);
+        assertEquals(180f, geometry.getSweepAngle(2), 0.001f);
+    }
+
+    public void testSetSlicesChangesVersion() {
+        RingGeometry geometry = new RingGeometry();
+        int version = geometry.getVersion();
+        geometry.setSlices(new float[]{1}, 1);
+
+        assertTrue(geometry.getVersion() != version);
+    }
+
+    public void testZeroScoresProduceNoSlices() {
+        RingGeometry geometry = slices(0, 0);
+
+        assertEquals(0, geometry.getSliceCount());
+        assertEquals(-1, geometry.indexAt(10, 0));
+    }
+
+    public void testIndexAtNormalizesAngle() {
+        RingGeometry geometry = slices(1, 1, 2);
+
+        assertEquals(0, geometry.indexAt(45, 0));
+        assertEquals(1, geometry.indexAt(100, 0));
+        assertEquals(2, geometry.indexAt(359, 0));
+        assertEquals(2, geometry.indexAt(-10, 0));
+        assertEquals(0, geometry.indexAt(370, 2));
+    }
+
+    public void testIndexAtWrapsForward() {
+        RingGeometry geometry = slices(1, 1, 1, 1);
+
+        assertEquals(0, geometry.indexAt(1, 3, 1));
+        assertEquals(1, geometry.indexAt(91, 3, 1));
+    }
+
+    public void testIndexAtWrapsBackward() {
+        RingGeometry geometry = slices(1, 1, 1, 1);
+
+        assertEquals(3, geometry.indexAt(359, 0, -1));
+        assertEquals(2, geometry.indexAt(269, 0, -1));
+    }
+
+    public void testIndexAtIgnoresInvalidHint() {
+        RingGeometry geometry = slices(1, 1, 1, 1);
+
+        assertEquals(2, geometry.indexAt(200, 10, 0));
+        assertEquals(2, geometry.indexAt(200, -1, 1));
+    }
+}
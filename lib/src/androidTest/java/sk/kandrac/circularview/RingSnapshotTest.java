@@ -0,0 +1,57 @@
+package sk.kandrac.circularview;
+
+import junit.framework.TestCase;
+
+public class RingSnapshotTest extends TestCase {
+
+    public void testAddStoresItemAndChangesVersion() {
+        RingSnapshot snapshot = new RingSnapshot();
+        int version = snapshot.getVersion();
+        snapshot.add(2, 0xff0000ff);
+
+        assertTrue(snapshot.getVersion() != version);
+        assertEquals(1, snapshot.getCount());
+        assertEquals(2f, snapshot.getScore(0), 0f);
+        assertEquals(0xff0000ff, snapshot.getColor(0));
+    }
+
+    public void testScrollDoesNotChangeVersion() {
+        RingSnapshot snapshot = new RingSnapshot().add(1, 0);
+        int version = snapshot.getVersion();
+        snapshot.setScroll(90);
+
+        assertEquals(version, snapshot.getVersion());
+        assertEquals(90, snapshot.getScroll());
+    }
+
+    public void testClearChangesVersionAndKeepsCapacity() {
+        RingSnapshot snapshot = new RingSnapshot(2);
+        for (int i = 0; i < 20; i++) snapshot.add(i, i);
+        snapshot.setScroll(45);
+        float[] scores = snapshot.getScores();
+        int version = snapshot.getVersion();
+
+        snapshot.clear();
+        assertTrue(snapshot.getVersion() != version);
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getScroll());
+
+        for (int i = 0; i < 20; i++) snapshot.add(i, i);
+        assertSame(scores, snapshot.getScores());
+    }
+
+    public void testSetCopiesItemsAndScroll() {
+        RingSnapshot source = new RingSnapshot().add(1, 10).add(3, 30).setScroll(180);
+        RingSnapshot copy = new RingSnapshot().add(5, 50);
+        int version = copy.getVersion();
+
+        copy.set(source);
+        source.clear().add(7, 70);
+
+        assertTrue(copy.getVersion() != version);
+        assertEquals(2, copy.getCount());
+        assertEquals(3f, copy.getScore(1), 0f);
+        assertEquals(30, copy.getColor(1));
+        assertEquals(180, copy.getScroll());
+    }
+}
@@ -0,0 +1,16 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Draws every slice as separate arc with paint of its item. Nothing is cached, so this renderer is
+ * the cheapest one for few items and the only one respecting all attributes of item paints.
+ */
+public class ArcRingRenderer implements RingRenderer {
+
+    @Override
+    public void draw(Canvas canvas, RingGeometry geometry, float rotation, Paint defaultPaint) {
+        geometry.drawRing(canvas, rotation, defaultPaint);
+    }
+}
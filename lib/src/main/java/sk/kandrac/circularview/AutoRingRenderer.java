@@ -0,0 +1,70 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.os.Build;
+
+/**
+ * Chooses renderer for each frame based on count of slices and whether the canvas is hardware
+ * accelerated:
+ * <ul>
+ * <li>up to {@link #getArcMaxSlices()} slices - {@link sk.kandrac.circularview.ArcRingRenderer}</li>
+ * <li>up to {@link #getPictureMaxSlices()} slices - {@link sk.kandrac.circularview.PictureRingRenderer}
+ * (hardware accelerated canvas only since API 23)</li>
+ * <li>otherwise {@link sk.kandrac.circularview.ShaderRingRenderer}</li>
+ * </ul>
+ * Default thresholds are rough estimates, not measurements. Thresholds for particular device may be
+ * measured with calibration of the stress test screen of the sample application, which times all
+ * renderers drawing into software canvas, and applied with {@link #setThresholds(int, int)}.
+ */
+public class AutoRingRenderer implements RingRenderer {
+
+    public static final int DEFAULT_ARC_MAX_SLICES = 48;
+    public static final int DEFAULT_PICTURE_MAX_SLICES = 1024;
+
+    private final ArcRingRenderer arcRenderer = new ArcRingRenderer();
+    private final PictureRingRenderer pictureRenderer = new PictureRingRenderer();
+    private final ShaderRingRenderer shaderRenderer = new ShaderRingRenderer();
+
+    private int arcMaxSlices = DEFAULT_ARC_MAX_SLICES;
+    private int pictureMaxSlices = DEFAULT_PICTURE_MAX_SLICES;
+    private RingRenderer lastRenderer;
+
+    @Override
+    public void draw(Canvas canvas, RingGeometry geometry, float rotation, Paint defaultPaint) {
+        lastRenderer = choose(geometry.count, canvas.isHardwareAccelerated());
+        lastRenderer.draw(canvas, geometry, rotation, defaultPaint);
+    }
+
+    private RingRenderer choose(int count, boolean hardwareAccelerated) {
+        if (count <= arcMaxSlices) return arcRenderer;
+        boolean pictureSupported = !hardwareAccelerated || Build.VERSION.SDK_INT >= 23;
+        if (count <= pictureMaxSlices && pictureSupported) return pictureRenderer;
+        return shaderRenderer;
+    }
+
+    /**
+     * @return renderer used for last frame, null if nothing was drawn yet
+     */
+    public RingRenderer getLastRenderer() {
+        return lastRenderer;
+    }
+
+    public int getArcMaxSlices() {
+        return arcMaxSlices;
+    }
+
+    public int getPictureMaxSlices() {
+        return pictureMaxSlices;
+    }
+
+    /**
+     * @param arcMaxSlices     maximal count of slices drawn arc by arc
+     * @param pictureMaxSlices maximal count of slices drawn from cached picture, more slices are
+     *                         drawn by single shader
+     */
+    public void setThresholds(int arcMaxSlices, int pictureMaxSlices) {
+        this.arcMaxSlices = arcMaxSlices;
+        this.pictureMaxSlices = pictureMaxSlices;
+    }
+}
@@ -0,0 +1,236 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import java.util.List;
+
+/**
+ * Headless renderer of the outer circle. Draws {@link sk.kandrac.circularview.RingSnapshot} into
+ * supplied {@link android.graphics.Canvas} or {@link android.graphics.Bitmap} without any view
+ * being inflated or attached, so it may be used for notifications, app widgets or share images.
+ * It still needs Android graphics implementation (device, emulator or a framework providing
+ * real {@code android.graphics} classes). Geometry and drawing are the same as in {@link CircularView} (see
+ * {@link sk.kandrac.circularview.RingGeometry}).
+ * <p/>
+ * Renderer is not bound to any thread, but single instance must not be used by multiple threads
+ * at once. Use one renderer per worker thread. Paints, canvas and slice buffers are reused between
+ * calls, so rendering many charts through single instance does not allocate.
+ */
+public class CircularRenderer {
+
+    private final RingGeometry geometry = new RingGeometry();
+    private final Canvas bitmapCanvas = new Canvas();
+    private final Paint defaultPaint = new Paint();
+    private RingRenderer ringRenderer = new AutoRingRenderer();
+
+    // paints used for slices, one per slice, grown on demand
+    private Paint[] paints = new Paint[0];
+
+    private int outerWidth;
+    private int padding;
+    private int backgroundColor = Color.TRANSPARENT;
+
+    // snapshot and size geometry was prepared for (geometry is reused when they do not change)
+    private RingSnapshot preparedSnapshot;
+    private int preparedVersion;
+    private int preparedSize;
+    private boolean configChanged = true;
+
+    /**
+     * Called for each rendered chart during {@link #renderBatch(java.util.List, android.graphics.Bitmap, BatchCallback)}
+     */
+    public interface BatchCallback {
+
+        /**
+         * Called after chart was drawn into the buffer. Buffer will be overwritten by next chart,
+         * so copy it or consume it before returning.
+         *
+         * @param index    index of snapshot in the batch
+         * @param snapshot rendered data
+         * @param bitmap   buffer containing rendered chart
+         */
+        void onRendered(int index, RingSnapshot snapshot, Bitmap bitmap);
+    }
+
+    /**
+     * @param outerWidth   width of outer circle in pixels
+     * @param defaultColor color displayed if snapshot contains no items
+     */
+    public CircularRenderer(int outerWidth, int defaultColor) {
+        this.outerWidth = outerWidth;
+        defaultPaint.setColor(defaultColor);
+        defaultPaint.setStrokeWidth(outerWidth);
+        defaultPaint.setStyle(Paint.Style.STROKE);
+    }
+
+    public int getOuterWidth() {
+        return outerWidth;
+    }
+
+    /**
+     * @param width width of outer circle in pixels
+     */
+    public void setOuterWidth(int width) {
+        this.outerWidth = width;
+        this.configChanged = true;
+        defaultPaint.setStrokeWidth(width);
+        for (Paint paint : paints) {
+            if (paint != null) paint.setStrokeWidth(width);
+        }
+    }
+
+    public int getPadding() {
+        return padding;
+    }
+
+    /**
+     * @param padding space left on each side of drawing area
+     */
+    public void setPadding(int padding) {
+        this.padding = padding;
+        this.configChanged = true;
+    }
+
+    public int getDefaultPaintColor() {
+        return defaultPaint.getColor();
+    }
+
+    public void setDefaultPaintColor(int color) {
+        defaultPaint.setColor(color);
+    }
+
+    public int getBackgroundColor() {
+        return backgroundColor;
+    }
+
+    /**
+     * @param color color bitmaps are cleared with before drawing (transparent by default)
+     */
+    public void setBackgroundColor(int color) {
+        this.backgroundColor = color;
+    }
+
+    public RingRenderer getRingRenderer() {
+        return ringRenderer;
+    }
+
+    /**
+     * @param renderer strategy drawing outer circle, null to use automatic selection
+     */
+    public void setRingRenderer(RingRenderer renderer) {
+        this.ringRenderer = renderer != null ? renderer : new AutoRingRenderer();
+    }
+
+    /**
+     * @return geometry prepared by last render call
+     */
+    public RingGeometry getGeometry() {
+        return geometry;
+    }
+
+    /**
+     * Draw outer circle of given snapshot into square area of given size placed at canvas origin.
+     * Canvas is not cleared.
+     *
+     * @param snapshot data to draw
+     * @param canvas   to draw to
+     * @param size     width and height of drawing area
+     */
+    public void render(RingSnapshot snapshot, Canvas canvas, int size) {
+        prepare(snapshot, size);
+        ringRenderer.draw(canvas, geometry, snapshot.getScroll(), defaultPaint);
+    }
+
+    /**
+     * Clear bitmap with background color and draw snapshot into it. Chart is drawn into square
+     * given by smaller bitmap dimension.
+     *
+     * @param snapshot data to draw
+     * @param bitmap   mutable bitmap to draw to
+     */
+    public void render(RingSnapshot snapshot, Bitmap bitmap) {
+        bitmap.eraseColor(backgroundColor);
+        bitmapCanvas.setBitmap(bitmap);
+        render(snapshot, bitmapCanvas, Math.min(bitmap.getWidth(), bitmap.getHeight()));
+        bitmapCanvas.setBitmap(null);
+    }
+
+    /**
+     * Draw snapshot into bitmap of given size. Supplied bitmap is reused when it has requested size
+     * and is mutable, otherwise new one is allocated.
+     *
+     * @param snapshot data to draw
+     * @param size     width and height of result bitmap
+     * @param reuse    bitmap to be reused, may be null
+     * @return bitmap containing rendered chart
+     */
+    public Bitmap render(RingSnapshot snapshot, int size, Bitmap reuse) {
+        Bitmap bitmap = obtainBitmap(size, reuse);
+        render(snapshot, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * Render many charts one by one into single buffer. After each chart is drawn the callback is
+     * notified, so the buffer may be copied (e.g. into RemoteViews) before it is reused.
+     *
+     * @param snapshots data of charts
+     * @param buffer    mutable bitmap all charts are drawn into
+     * @param callback  notified after each chart
+     */
+    public void renderBatch(List<RingSnapshot> snapshots, Bitmap buffer, BatchCallback callback) {
+        for (int i = 0; i < snapshots.size(); i++) {
+            RingSnapshot snapshot = snapshots.get(i);
+            render(snapshot, buffer);
+            callback.onRendered(i, snapshot, buffer);
+        }
+    }
+
+    private Bitmap obtainBitmap(int size, Bitmap reuse) {
+        if (reuse != null && reuse.isMutable() && !reuse.isRecycled()
+                && reuse.getWidth() == size && reuse.getHeight() == size) {
+            return reuse;
+        }
+        return Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * Compute geometry of snapshot and assign paints to its slices. Geometry is kept when the same
+     * snapshot is drawn again without change (e.g. only its scroll changed), so renderers may reuse
+     * their caches.
+     */
+    private void prepare(RingSnapshot snapshot, int size) {
+        if (!configChanged && snapshot == preparedSnapshot
+                && snapshot.getVersion() == preparedVersion && size == preparedSize) return;
+        preparedSnapshot = snapshot;
+        preparedVersion = snapshot.getVersion();
+        preparedSize = size;
+        configChanged = false;
+
+        final int count = snapshot.getCount();
+        ensurePaints(count);
+        geometry.setBounds(size, padding, outerWidth);
+        geometry.setSlices(snapshot.getScores(), count);
+        for (int i = 0; i < count; i++) {
+            paints[i].setColor(snapshot.getColor(i));
+            geometry.paints[i] = paints[i];
+        }
+    }
+
+    private void ensurePaints(int count) {
+        if (paints.length >= count) return;
+        Paint[] newPaints = new Paint[Math.max(count, paints.length * 2)];
+        System.arraycopy(paints, 0, newPaints, 0, paints.length);
+        for (int i = paints.length; i < newPaints.length; i++) {
+            Paint paint = new Paint();
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(outerWidth);
+            paint.setAntiAlias(true);
+            newPaints[i] = paint;
+        }
+        paints = newPaints;
+    }
+}
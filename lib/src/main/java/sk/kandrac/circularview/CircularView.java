@@ -5,12 +5,12 @@ import android.content.res.TypedArray;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
-import android.graphics.Path;
-import android.graphics.Rect;
-import android.graphics.RectF;
 import android.graphics.Region;
+import android.graphics.drawable.Drawable;
+import android.os.Build;
 import android.os.Parcel;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.support.v4.view.MotionEventCompat;
 import android.support.v4.view.ViewCompat;
 import android.util.AttributeSet;
@@ -29,22 +29,88 @@ import java.util.Map;
  * This view is intended to display Circular view composed of 2 circles. Inner circle to show
  * standard content cropped into circle, and outer to display PieChart-like portions of added
  * items. (see addItem() methods and/or sample application).
+ * <p/>
+ * Like any view, CircularView must be used from UI thread only. This includes adding, removing and
+ * updating items ({@link #addItem(Object, float, int)}, {@link #removeItem(Object)},
+ * {@link #setItemScore(Object, float)}, {@link #addItemScore(Object, float)}...), because they
+ * update score order and prepared slices in place. Post updates produced on other threads to UI
+ * thread (see stress test screen of sample application).
  *
  * Created by VizGhar on 2.6.2014.
  */
 public class CircularView extends ViewGroup {
 
+    // size of icon cell in atlas (in dp)
+    private static final int ICON_CELL_SIZE = 48;
+
+    /**
+     * Item representing slice all items not fitting into top item count are collapsed into (see
+     * {@link #setTopItemCount(int)})
+     */
+    public static final Object REST_ITEM = new Object();
+
     // list of items percentage of which will be displayed in outer circle
     private HashMap<Object, ItemDescriptor> items = new HashMap<Object, ItemDescriptor>();
 
     // width of outer circle
     private int outerWidth;
 
-    // bounds of whole view (substracted by half of width of outer circle)
-    private Rect innerBounds;
+    // bounds, clip path and slices of outer circle (shared with CircularRenderer)
+    private RingGeometry geometry;
+
+    // strategy drawing outer circle
+    private RingRenderer ringRenderer = new AutoRingRenderer();
+
+    // whether slices of geometry have to be recomputed before next draw
+    private boolean slicesDirty = true;
+
+    // whether items changed since last snapshot was passed to render thread
+    private boolean snapshotDirty;
+
+    // reused buffer of item scores used to prepare slices
+    private float[] scoreBuffer = new float[0];
+
+    // items and their descriptors in order of prepared slices (item of removed slice is null)
+    private Object[] sliceItems = new Object[0];
+    private ItemDescriptor[] sliceDescriptors = new ItemDescriptor[0];
+
+    // count of removed slices left in prepared slices with zero score until compaction
+    private int removedSlices;
+
+    // whether angles of prepared slices have to be recomputed (after removal) before next draw
+    private boolean anglesDirty;
+
+    // count of prepared slices (including slices with zero score)
+    private int sliceCount;
 
-    // rectangular bounds of child view
-    private RectF outerBounds;
+    // items ordered by score, null when items are displayed in map order
+    private ItemOrder order;
+
+    // whether items are displayed sorted by score
+    private boolean sortedByScore;
+
+    // count of displayed top items (0 to display all), remaining items are collapsed into one slice
+    private int topItemCount;
+
+    // paint of slice remaining items are collapsed into
+    private Paint restPaint;
+
+    // ring drawn on dedicated render thread, null when ring is drawn together with child
+    private RingTextureView ringView;
+    private RingSnapshot ringSnapshot;
+    private boolean ringPublishPosted;
+
+    // labels and icons placed on slices
+    private RingDecorations decorations;
+
+    // whether any item got label or icon (slices are then prepared on UI thread in render thread mode)
+    private boolean decorated;
+
+    // atlas icons of items are stored in (created when first icon is set)
+    private IconAtlas iconAtlas;
+
+    // paint used for slice labels
+    private Paint labelPaint;
 
     // paint used only for layout preview
     private Paint defaultPaint;
@@ -52,9 +118,6 @@ public class CircularView extends ViewGroup {
     // color used mainly for layout preview or when no item is presented
     private int defaultColor;
 
-    // clip path where child should be placed
-    private Path clipPath;
-
     // holds whether view is scrolling or not
     private boolean mIsScrolling = false;
 
@@ -64,16 +127,16 @@ public class CircularView extends ViewGroup {
     // current scroll
     private int scroll;
 
-    // center position of view (same for X and Y position)
-    private float center;
-
-    // inner and outer circle radius
-    private float innerRadius;
-    private float outerRadius;
+    // whether redraw on next animation frame was already requested
+    private boolean frameRequested;
 
     // rotate speed multiplier
     private float rotateSpeed;
 
+    // color and text size of slice labels
+    private int labelColor;
+    private float labelSize;
+
     // gesture detection
     private CircularGestureListener mGestureListener;
     private GestureDetector gestureDetector;
@@ -105,6 +168,8 @@ public class CircularView extends ViewGroup {
         outerWidth = (int) attrs.getDimension(R.styleable.CircularView_outer_width, 50);
         defaultColor = attrs.getColor(R.styleable.CircularView_default_color, Color.BLACK);
         rotateSpeed = attrs.getFloat(R.styleable.CircularView_rotate_speed, 1.0f);
+        labelColor = attrs.getColor(R.styleable.CircularView_label_color, Color.WHITE);
+        labelSize = attrs.getDimension(R.styleable.CircularView_label_size, 24);
         attrs.recycle();
     }
 
@@ -112,14 +177,25 @@ public class CircularView extends ViewGroup {
      * Initialize values
      */
     private void init() {
-        innerBounds = new Rect();
-        outerBounds = new RectF();
-        clipPath = new Path();
+        geometry = new RingGeometry();
         defaultPaint = new Paint();
         defaultPaint.setColor(defaultColor);
         defaultPaint.setStrokeWidth(outerWidth);
         defaultPaint.setStyle(Paint.Style.STROKE);
 
+        restPaint = new Paint();
+        restPaint.setStyle(Paint.Style.STROKE);
+        restPaint.setColor(Color.GRAY);
+        restPaint.setStrokeWidth(outerWidth);
+        restPaint.setAntiAlias(true);
+
+        decorations = new RingDecorations();
+        labelPaint = new Paint();
+        labelPaint.setAntiAlias(true);
+        labelPaint.setTextAlign(Paint.Align.CENTER);
+        labelPaint.setColor(labelColor);
+        labelPaint.setTextSize(labelSize);
+
         setLayerType(View.LAYER_TYPE_SOFTWARE, null);
 
         ViewConfiguration vc = ViewConfiguration.get(getContext());
@@ -144,6 +220,7 @@ public class CircularView extends ViewGroup {
     public void setDefaultPaintColor(int color){
         this.defaultColor = color;
         this.defaultPaint.setColor(defaultColor);
+        if (ringView != null) ringView.setDefaultPaintColor(color);
     }
 
     /**
@@ -160,9 +237,12 @@ public class CircularView extends ViewGroup {
     public void setOuterWidth(int width){
         this.outerWidth = width;
         this.defaultPaint.setStrokeWidth(width);
+        this.restPaint.setStrokeWidth(width);
         for (Map.Entry<Object,ItemDescriptor> desc : items.entrySet()){
             desc.getValue().setPaintWidth(width);
         }
+        slicesDirty = true;
+        if (ringView != null) ringView.setOuterWidth(width);
         requestLayout();
     }
 
@@ -174,6 +254,84 @@ public class CircularView extends ViewGroup {
         return this.rotateSpeed;
     }
 
+    /**
+     * @return strategy drawing outer cycle
+     */
+    public RingRenderer getRingRenderer(){
+        return this.ringRenderer;
+    }
+
+    /**
+     * Set strategy drawing outer cycle. By default {@link sk.kandrac.circularview.AutoRingRenderer}
+     * chooses suitable renderer based on count of items. Not used when outer cycle is drawn on
+     * render thread (see {@link #setRenderThreadEnabled(boolean)}).
+     * @param renderer to be set, null to use automatic selection
+     */
+    public void setRingRenderer(RingRenderer renderer){
+        this.ringRenderer = renderer != null ? renderer : new AutoRingRenderer();
+        invalidate();
+    }
+
+    /**
+     * @return color of slice labels
+     */
+    public int getLabelColor(){
+        return this.labelColor;
+    }
+
+    /**
+     * Set color of slice labels
+     * @param color to be set
+     */
+    public void setLabelColor(int color){
+        this.labelColor = color;
+        this.labelPaint.setColor(color);
+        requestFrame();
+    }
+
+    /**
+     * @return text size of slice labels in pixels
+     */
+    public float getLabelSize(){
+        return this.labelSize;
+    }
+
+    /**
+     * Set text size of slice labels. All labels are measured again.
+     * @param size in pixels
+     */
+    public void setLabelSize(float size){
+        this.labelSize = size;
+        this.labelPaint.setTextSize(size);
+        for (Map.Entry<Object,ItemDescriptor> desc : items.entrySet()){
+            desc.getValue().measureLabel();
+        }
+        slicesDirty = true;
+        requestFrame();
+    }
+
+    /**
+     * @return atlas icons of items are stored in, null if no icon was set yet
+     */
+    public IconAtlas getIconAtlas(){
+        return this.iconAtlas;
+    }
+
+    /**
+     * Set atlas icons of items will be stored in. Atlas may be shared by more views. Must be set
+     * before any icon is set.
+     * @param atlas to be set
+     */
+    public void setIconAtlas(IconAtlas atlas){
+        this.iconAtlas = atlas;
+    }
+
+    private IconAtlas obtainIconAtlas(){
+        if (iconAtlas == null)
+            iconAtlas = new IconAtlas((int) (ICON_CELL_SIZE * getResources().getDisplayMetrics().density));
+        return iconAtlas;
+    }
+
     //////////////////////////////////////////////
     // OUTER CIRCLE ITEM PROCESSING PART        //
     //////////////////////////////////////////////
@@ -181,6 +339,14 @@ public class CircularView extends ViewGroup {
 
         private float score;
         private Paint paint;
+        private String label;
+        private float labelWidth;
+        private int iconIndex = -1;
+
+        // item this descriptor belongs to, its node in score order and index of its slice
+        Object key;
+        int orderNode = -1;
+        int slice = -1;
 
         public ItemDescriptor(float score, int color) {
             this.score = score;
@@ -201,7 +367,10 @@ public class CircularView extends ViewGroup {
         }
 
         public void setScore(float score) {
+            float oldScore = this.score;
             this.score = score;
+            if (order != null && order.contains(this)) order.update(this, oldScore);
+            scoreChanged(this, oldScore);
         }
 
         public Paint getPaint() {
@@ -210,12 +379,32 @@ public class CircularView extends ViewGroup {
 
         public void setPaint(Paint paint) {
             this.paint = paint;
+            markSlicesDirty();
         }
 
         public void setPaintWidth(int width){
             this.paint.setStrokeWidth(width);
         }
 
+        public String getLabel() {
+            return label;
+        }
+
+        public void setLabel(String label) {
+            this.label = label;
+            measureLabel();
+            if (label != null) decorated = true;
+            slicesDirty = true;
+        }
+
+        /**
+         * Measure label with current label paint. Width is cached so labels are not measured
+         * again when circle rotates or slices change.
+         */
+        private void measureLabel() {
+            labelWidth = label != null ? labelPaint.measureText(label) : 0;
+        }
+
         @Override
         public int describeContents() {
             return 0;
@@ -283,24 +472,469 @@ public class CircularView extends ViewGroup {
      * on its current score. Therefore is needed to input item score and item color so the user
      * can distinguish differences between items.
      *
+     * Must be called from UI thread.
+     *
      * @param item  to be added
      * @param score initial score of item
      * @param color color representing item
      */
     public void addItem(Object item, float score, int color) {
         ItemDescriptor itemDescriptor = new ItemDescriptor(score, color);
-        items.put(item, itemDescriptor);
+        itemDescriptor.key = item;
+        ItemDescriptor previous = items.put(item, itemDescriptor);
+        if (previous != null) releaseIcon(previous);
+        if (order != null) {
+            if (previous != null && order.contains(previous)) order.remove(previous);
+            order.add(itemDescriptor);
+        }
+        markSlicesDirty();
+        ringChanged();
+    }
+
+    /**
+     * Remove item from outer view. Slices of remaining items are not rebuilt, slice of removed item
+     * is only marked as removed (its score is zeroed) in O(1) and angles are recomputed once before
+     * next draw. Removed slices are compacted when they make up half of the slices. Must be called
+     * from UI thread.
+     *
+     * @param item to be removed
+     * @return true if item was presented
+     */
+    public boolean removeItem(Object item) {
+        ItemDescriptor descriptor = items.remove(item);
+        if (descriptor == null) return false;
+        if (order != null && order.contains(descriptor)) order.remove(descriptor);
+        releaseIcon(descriptor);
+
+        final int slice = descriptor.slice;
+        if (slicesDirty || topItemCount > 0 || slice < 0 || slice >= sliceCount
+                || sliceDescriptors[slice] != descriptor) {
+            // top items changed (or slices are rebuilt anyway), rebuild on next draw
+            markSlicesDirty();
+        } else {
+            sliceItems[slice] = null;
+            sliceDescriptors[slice] = null;
+            scoreBuffer[slice] = 0;
+            decorations.set(slice, null, 0, -1);
+            removedSlices++;
+            markAnglesDirty();
+        }
+        descriptor.slice = -1;
+        ringChanged();
+        return true;
+    }
+
+    /**
+     * Remove all items. Allocated buffers are kept, so the view may be refilled without allocating
+     * them again.
+     */
+    public void clearItems() {
+        if (iconAtlas != null) {
+            for (ItemDescriptor descriptor : items.values()) releaseIcon(descriptor);
+        }
+        items.clear();
+        if (order != null) order.clear();
+        for (int i = 0; i < sliceCount; i++) {
+            sliceItems[i] = null;
+            sliceDescriptors[i] = null;
+            geometry.paints[i] = null;
+        }
+        sliceCount = 0;
+        removedSlices = 0;
+        decorated = false;
+        geometry.setSlices(scoreBuffer, 0);
+        decorations.layout(geometry, 0, labelPaint);
+        slicesDirty = false;
+        anglesDirty = false;
+        updateSelection();
+        ringChanged();
+    }
+
+    /**
+     * @return true if items are displayed sorted by score
+     */
+    public boolean isSortedByScore() {
+        return sortedByScore;
+    }
+
+    /**
+     * Display items sorted by score (highest score first). Order is maintained incrementally, so
+     * change of score of single item only moves the item to its new position in O(log n) time.
+     *
+     * @param sorted whether items should be sorted
+     */
+    public void setSortedByScore(boolean sorted) {
+        this.sortedByScore = sorted;
+        updateOrder();
+    }
+
+    /**
+     * @return count of displayed top items, 0 if all items are displayed
+     */
+    public int getTopItemCount() {
+        return topItemCount;
+    }
+
+    /**
+     * Display only given count of items with highest score. Remaining items are collapsed into
+     * single slice represented by {@link #REST_ITEM} (see {@link #setRestColor(int)}). Items are
+     * always sorted by score when top item count is set.
+     *
+     * @param count of displayed items, 0 to display all items
+     */
+    public void setTopItemCount(int count) {
+        this.topItemCount = Math.max(0, count);
+        updateOrder();
+    }
+
+    /**
+     * @return color of slice remaining items are collapsed into
+     */
+    public int getRestColor() {
+        return restPaint.getColor();
+    }
+
+    /**
+     * @param color of slice remaining items are collapsed into (see {@link #setTopItemCount(int)})
+     */
+    public void setRestColor(int color) {
+        restPaint.setColor(color);
+        markSlicesDirty();
+        ringChanged();
+    }
+
+    /**
+     * Create or drop score order of items based on current sorting settings.
+     */
+    private void updateOrder() {
+        boolean ordered = sortedByScore || topItemCount > 0;
+        if (ordered && order == null) {
+            order = new ItemOrder(items.size());
+            order.setAll(items.values());
+        } else if (!ordered) {
+            order = null;
+        }
+        markSlicesDirty();
+        ringChanged();
+    }
+
+    /**
+     * Copy current items and scroll into snapshot, that may be drawn by
+     * {@link sk.kandrac.circularview.CircularRenderer} outside of UI thread. Must be called from
+     * UI thread.
+     *
+     * @param reuse snapshot to be refilled, may be null
+     * @return filled snapshot
+     */
+    public RingSnapshot getSnapshot(RingSnapshot reuse) {
+        updateSlices();
+        RingSnapshot snapshot = reuse != null ? reuse.clear() : new RingSnapshot(sliceCount);
+        for (int i = 0; i < sliceCount; i++) {
+            snapshot.add(scoreBuffer[i], geometry.paints[i].getColor());
+        }
+        return snapshot.setScroll(scroll);
+    }
+
+    /**
+     * @return true if prepared slices do not match current items
+     */
+    private boolean slicesOutdated() {
+        return slicesDirty || anglesDirty;
+    }
+
+    /**
+     * Bring prepared slices up to date. Slices are rebuilt when items changed, when items were only
+     * removed just angles are recomputed (and removed slices compacted if there are many of them).
+     */
+    private void updateSlices() {
+        if (slicesDirty) {
+            prepareSlices();
+        } else if (anglesDirty) {
+            if (removedSlices * 2 > sliceCount) compactSlices();
+            geometry.setSlices(scoreBuffer, sliceCount);
+            decorations.layout(geometry, sliceCount, labelPaint);
+            anglesDirty = false;
+        }
+    }
+
+    /**
+     * Recompute slices of outer circle from current items. When items are ordered by score, only
+     * top items are visited.
+     */
+    private void prepareSlices() {
+        int count;
+        if (order == null) {
+            count = items.size();
+            ensureSliceCapacity(count);
+            int i = 0;
+            for (Map.Entry<Object, ItemDescriptor> item : items.entrySet()) {
+                putSlice(i++, item.getKey(), item.getValue());
+            }
+        } else {
+            final int shown = topItemCount > 0 ? Math.min(topItemCount, order.size()) : order.size();
+            count = shown < order.size() ? shown + 1 : shown;
+            ensureSliceCapacity(count);
+            double shownSum = 0;
+            ItemDescriptor descriptor = order.first();
+            for (int i = 0; i < shown; i++) {
+                putSlice(i, descriptor.key, descriptor);
+                shownSum += descriptor.getScore();
+                descriptor = order.next(descriptor);
+            }
+            if (count > shown) {
+                // remaining items collapsed into single slice
+                sliceItems[shown] = REST_ITEM;
+                sliceDescriptors[shown] = null;
+                scoreBuffer[shown] = (float) Math.max(0, order.getSum() - shownSum);
+                geometry.paints[shown] = restPaint;
+                decorations.set(shown, null, 0, -1);
+            }
+        }
+        geometry.setSlices(scoreBuffer, count);
+        decorations.layout(geometry, count, labelPaint);
+        for (int j = count; j < sliceCount; j++) {
+            sliceItems[j] = null;
+            sliceDescriptors[j] = null;
+        }
+        sliceCount = count;
+        removedSlices = 0;
+        slicesDirty = false;
+        anglesDirty = false;
+    }
+
+    private void ensureSliceCapacity(int count) {
+        if (scoreBuffer.length < count) scoreBuffer = new float[Math.max(count, scoreBuffer.length * 2)];
+        if (sliceItems.length < count) {
+            Object[] newItems = new Object[scoreBuffer.length];
+            ItemDescriptor[] newDescriptors = new ItemDescriptor[scoreBuffer.length];
+            System.arraycopy(sliceItems, 0, newItems, 0, sliceCount);
+            System.arraycopy(sliceDescriptors, 0, newDescriptors, 0, sliceCount);
+            sliceItems = newItems;
+            sliceDescriptors = newDescriptors;
+        }
+        geometry.ensureCapacity(count);
+        decorations.ensureCapacity(count);
+    }
+
+    /**
+     * Update prepared slices after score of single item changed. When the item keeps its slice
+     * only its score is replaced, when it stays collapsed among items not fitting into top item
+     * count only score of remaining items slice changes. Angles are then recomputed before next
+     * draw, slices are rebuilt only when the item moved to other slice.
+     */
+    private void scoreChanged(ItemDescriptor descriptor, float oldScore) {
+        if (slicesDirty) {
+            // slices are rebuilt anyway
+            markSlicesDirty();
+            return;
+        }
+        final int slice = descriptor.slice;
+        final boolean shown = slice >= 0 && slice < sliceCount && sliceDescriptors[slice] == descriptor;
+
+        if (order == null || !order.contains(descriptor)) {
+            if (shown) {
+                scoreBuffer[slice] = descriptor.getScore();
+                markAnglesDirty();
+                return;
+            }
+        } else {
+            final int position = order.positionOf(descriptor);
+            if (shown && position == slice && removedSlices == 0) {
+                scoreBuffer[slice] = descriptor.getScore();
+                markAnglesDirty();
+                return;
+            }
+            final int rest = sliceCount - 1;
+            if (!shown && topItemCount > 0 && position >= topItemCount
+                    && rest >= 0 && sliceItems[rest] == REST_ITEM) {
+                scoreBuffer[rest] = Math.max(0, scoreBuffer[rest] + descriptor.getScore() - oldScore);
+                markAnglesDirty();
+                return;
+            }
+        }
+        markSlicesDirty();
+    }
+
+    /**
+     * Drop removed slices from prepared slices in single pass. Remaining slices keep their order.
+     * Removed slice is marked by missing descriptor, as null is valid item. Slices are removed
+     * in place only when top items are not shown, so there is no rest slice (the only other slice
+     * without descriptor).
+     */
+    private void compactSlices() {
+        int count = 0;
+        for (int i = 0; i < sliceCount; i++) {
+            if (sliceDescriptors[i] == null) continue;
+            if (count != i) {
+                sliceItems[count] = sliceItems[i];
+                sliceDescriptors[count] = sliceDescriptors[i];
+                scoreBuffer[count] = scoreBuffer[i];
+                geometry.paints[count] = geometry.paints[i];
+                decorations.move(i, count);
+                sliceDescriptors[count].slice = count;
+            }
+            count++;
+        }
+        for (int i = count; i < sliceCount; i++) {
+            sliceItems[i] = null;
+            sliceDescriptors[i] = null;
+            geometry.paints[i] = null;
+            decorations.set(i, null, 0, -1);
+        }
+        sliceCount = count;
+        removedSlices = 0;
+    }
+
+    private void putSlice(int index, Object item, ItemDescriptor descriptor) {
+        descriptor.slice = index;
+        sliceDescriptors[index] = descriptor;
+        sliceItems[index] = item;
+        scoreBuffer[index] = descriptor.getScore();
+        geometry.paints[index] = descriptor.getPaint();
+        decorations.set(index, descriptor.label, descriptor.labelWidth, descriptor.iconIndex);
+    }
+
+    //////////////////////////////////////////////
+    // SELECTION TRACKING                       //
+    //////////////////////////////////////////////
+
+    /**
+     * Interface definition for a callback invoked when item under selection indicator changes.
+     */
+    public interface OnSelectionChangedListener {
+
+        /**
+         * @param view CircularView selection changed in
+         * @param item now placed under selection indicator, or null if no item is displayed
+         */
+        void onSelectionChanged(CircularView view, Object item);
+    }
+
+    // selection listener, selection is not tracked when null
+    private OnSelectionChangedListener selectionListener;
+
+    // angle of fixed selection indicator (0 = 3 o'clock, 270 = 12 o'clock)
+    private float indicatorAngle = 270;
+
+    // marks that listener was not notified yet
+    private static final Object NOT_NOTIFIED = new Object();
+
+    // index of selected slice (-1 when nothing is selected) and item it represents
+    private int selectedIndex = -1;
+    private Object selectedItem;
+
+    // item listener was notified about last time
+    private Object lastNotifiedItem = NOT_NOTIFIED;
+
+    // scroll selected index was found for (its change gives direction of search)
+    private int selectionScroll;
+
+    // minimal time between two notifications during scroll (in ms), 0 to notify on each change
+    private long selectionThrottle;
+    private long lastSelectionNotification;
+    private boolean selectionPending;
+
+    /**
+     * Register callback to be invoked when item under selection indicator changes (e.g. while
+     * circle rotates). Listener is notified immediately with currently selected item.
+     *
+     * @param listener to be registered, null to stop selection tracking
+     */
+    public void setOnSelectionChangedListener(OnSelectionChangedListener listener) {
+        this.selectionListener = listener;
+        this.selectedIndex = -1;
+        this.selectedItem = null;
+        this.lastNotifiedItem = NOT_NOTIFIED;
+        this.selectionPending = false;
+        if (listener != null) {
+            updateSlices();
+            selectionScroll = scroll;
+            selectedIndex = geometry.indexAt(indicatorAngle - scroll, -1);
+            selectedItem = selectedIndex >= 0 ? sliceItems[selectedIndex] : null;
+            notifySelection();
+        }
     }
 
     /**
-     * @return Sum of scores of all items
+     * @return angle of selection indicator in degrees
      */
-    private int getSum() {
-        int sum = 0;
-        for (Map.Entry<Object, ItemDescriptor> item : items.entrySet()) {
-            sum += item.getValue().getScore();
+    public float getIndicatorAngle() {
+        return indicatorAngle;
+    }
+
+    /**
+     * Set angle of fixed selection indicator. Angle is measured clockwise from 3 o'clock position
+     * (same as in {@link android.graphics.Canvas#drawArc(android.graphics.RectF, float, float, boolean, android.graphics.Paint)}).
+     * Default is 270 (12 o'clock).
+     *
+     * @param angle in degrees
+     */
+    public void setIndicatorAngle(float angle) {
+        this.indicatorAngle = angle;
+        updateSelection();
+    }
+
+    /**
+     * @return minimal time between two selection notifications while circle is scrolling
+     */
+    public long getSelectionThrottle() {
+        return selectionThrottle;
+    }
+
+    /**
+     * Limit rate of selection notifications while circle is scrolling or flinging. Last change is
+     * always delivered once scrolling finishes.
+     *
+     * @param millis minimal time between two notifications, 0 to notify on every change
+     */
+    public void setSelectionThrottle(long millis) {
+        this.selectionThrottle = millis;
+    }
+
+    /**
+     * @return item placed under selection indicator, or null if no item is displayed or selection
+     * is not tracked (no listener is registered)
+     */
+    public Object getSelectedItem() {
+        return selectedItem;
+    }
+
+    /**
+     * Find slice under indicator starting from currently selected one and notify listener if it
+     * changed.
+     */
+    private void updateSelection() {
+        if (selectionListener == null) return;
+        updateSlices();
+
+        // angle under indicator decreases when scroll increases
+        final int direction = scroll > selectionScroll ? -1 : scroll < selectionScroll ? 1 : 0;
+        selectionScroll = scroll;
+        selectedIndex = geometry.indexAt(indicatorAngle - scroll, selectedIndex, direction);
+        Object item = selectedIndex >= 0 ? sliceItems[selectedIndex] : null;
+        if (item == selectedItem) return;
+        selectedItem = item;
+
+        if (item == lastNotifiedItem) {
+            // selection returned to already notified item before throttled notification
+            selectionPending = false;
+            return;
         }
-        return sum;
+
+        if (selectionThrottle > 0 && !mGestureListener.isFinished()
+                && SystemClock.uptimeMillis() - lastSelectionNotification < selectionThrottle) {
+            selectionPending = true;
+            return;
+        }
+        notifySelection();
+    }
+
+    private void notifySelection() {
+        selectionPending = false;
+        if (selectedItem == lastNotifiedItem) return;
+        lastNotifiedItem = selectedItem;
+        lastSelectionNotification = SystemClock.uptimeMillis();
+        selectionListener.onSelectionChanged(this, selectedItem);
     }
 
     /**
@@ -323,22 +957,29 @@ public class CircularView extends ViewGroup {
     }
 
     /**
+     * Must be called from UI thread.
+     *
      * @param item  added to outer view to set score to
      * @param score to set
      */
     public void setItemScore(Object item, float score) {
-        items.get(item).setScore(score);
-        postInvalidate();
+        ItemDescriptor descriptor = items.get(item);
+        if (descriptor.getScore() == score) return;
+        descriptor.setScore(score);
+        ringChanged();
     }
 
     /**
+     * Must be called from UI thread.
+     *
      * @param item  added to outer view to add score to
      * @param score addition
      */
     public void addItemScore(Object item, float score) {
+        if (score == 0) return;
         ItemDescriptor descriptor = items.get(item);
         descriptor.setScore(descriptor.getScore() + score);
-        postInvalidate();
+        ringChanged();
     }
 
     /**
@@ -354,8 +995,198 @@ public class CircularView extends ViewGroup {
      * @param color to set
      */
     public void setItemColor(Object item, int color) {
-        items.get(item).getPaint().setColor(color);
-        postInvalidate();
+        Paint paint = items.get(item).getPaint();
+        if (paint.getColor() == color) return;
+        paint.setColor(color);
+        markSlicesDirty();
+        ringChanged();
+    }
+
+    /**
+     * @param item added to outer view to obtain label from
+     * @return label of item, or null if item has no label
+     */
+    public String getItemLabel(Object item) {
+        return items.get(item).getLabel();
+    }
+
+    /**
+     * Set label displayed in the middle of item's portion of outer circle. Label overlapping
+     * label of preceding item is not displayed.
+     *
+     * @param item  added to outer view to set label to
+     * @param label to set, null to remove label
+     */
+    public void setItemLabel(Object item, String label) {
+        items.get(item).setLabel(label);
+        requestFrame();
+    }
+
+    /**
+     * Set icon displayed in the middle of item's portion of outer circle (before label if any).
+     * Icon is rasterized into shared {@link sk.kandrac.circularview.IconAtlas}.
+     *
+     * @param item added to outer view to set icon to
+     * @param icon to set, null to remove icon
+     */
+    public void setItemIcon(Object item, Drawable icon) {
+        ItemDescriptor descriptor = items.get(item);
+        int index = icon != null ? obtainIconAtlas().add(icon) : -1;
+        releaseIcon(descriptor);
+        descriptor.iconIndex = index;
+        if (icon != null) decorated = true;
+        slicesDirty = true;
+        requestFrame();
+    }
+
+    /**
+     * Same as {@link #setItemIcon(Object, android.graphics.drawable.Drawable)}. Resource is loaded
+     * and rasterized only once for all items using it.
+     *
+     * @param item  added to outer view to set icon to
+     * @param resId drawable resource of icon
+     */
+    public void setItemIcon(Object item, int resId) {
+        ItemDescriptor descriptor = items.get(item);
+        IconAtlas atlas = obtainIconAtlas();
+        int index = atlas.acquire(resId);
+        if (index < 0) index = atlas.add(resId, getResources().getDrawable(resId));
+        releaseIcon(descriptor);
+        descriptor.iconIndex = index;
+        decorated = true;
+        slicesDirty = true;
+        requestFrame();
+    }
+
+    /**
+     * Release icon of item from atlas, so its cell may be reused when no other item uses it.
+     */
+    private void releaseIcon(ItemDescriptor descriptor) {
+        if (descriptor.iconIndex >= 0 && iconAtlas != null) iconAtlas.release(descriptor.iconIndex);
+        descriptor.iconIndex = -1;
+    }
+
+    //////////////////////////////////////////////
+    // RENDER THREAD MODE                       //
+    //////////////////////////////////////////////
+    private final Runnable publishRing = new Runnable() {
+        @Override
+        public void run() {
+            ringPublishPosted = false;
+            if (ringView == null) return;
+            if (slicesOutdated() && needsPreparedSlices()) {
+                updateSlices();
+                updateSelection();
+            }
+            if (ringSnapshot == null) ringSnapshot = new RingSnapshot();
+            if (slicesOutdated()) fillSnapshot(ringSnapshot);
+            else getSnapshot(ringSnapshot);
+            // snapshot is handed over, the one returned is free to be filled next time
+            ringSnapshot = ringView.exchangeSnapshot(ringSnapshot);
+            snapshotDirty = false;
+            // labels and icons are still drawn on UI thread
+            if (decorations.isVisible()) requestFrame();
+        }
+    };
+
+    /**
+     * @return true if slice angles are needed on UI thread (ring is drawn there, or selection,
+     * labels or icons need them)
+     */
+    private boolean needsPreparedSlices() {
+        return ringView == null || selectionListener != null || decorated;
+    }
+
+    /**
+     * Fill snapshot directly from item scores and colors in the same order as slices would be
+     * prepared. Angles are not computed, render thread computes them while drawing.
+     */
+    private void fillSnapshot(RingSnapshot snapshot) {
+        snapshot.clear();
+        if (order == null) {
+            for (ItemDescriptor descriptor : items.values()) {
+                snapshot.add(descriptor.getScore(), descriptor.getPaint().getColor());
+            }
+        } else {
+            final int shown = topItemCount > 0 ? Math.min(topItemCount, order.size()) : order.size();
+            double shownSum = 0;
+            ItemDescriptor descriptor = order.first();
+            for (int i = 0; i < shown; i++) {
+                snapshot.add(descriptor.getScore(), descriptor.getPaint().getColor());
+                shownSum += descriptor.getScore();
+                descriptor = order.next(descriptor);
+            }
+            if (shown < order.size()) {
+                snapshot.add((float) Math.max(0, order.getSum() - shownSum), restPaint.getColor());
+            }
+        }
+        snapshot.setScroll(scroll);
+    }
+
+    /**
+     * @return true if outer circle is drawn on dedicated render thread
+     */
+    public boolean isRenderThreadEnabled() {
+        return ringView != null;
+    }
+
+    /**
+     * Draw outer circle on dedicated render thread (see {@link sk.kandrac.circularview.RingTextureView})
+     * placed above the child, so it still covers not antialiased edge of clipped child. Changes of
+     * item scores and colors then only pass snapshot of scores and colors to the render thread
+     * instead of redrawing whole view (and the child) on UI thread. Labels and icons are still drawn
+     * on UI thread. Requires API 18 (clipping of child in hardware accelerated canvas) and hardware
+     * accelerated window, texture view displays nothing in software rendered window. If the mode
+     * is enabled before the view is attached and the window turns out not to be hardware
+     * accelerated, the ring falls back to being drawn together with the child (see
+     * {@link #isRenderThreadEnabled()}).
+     *
+     * @param enabled whether outer circle should be drawn on render thread
+     * @throws IllegalStateException if API is lower than 18, or the view is attached to window that
+     *                               is not hardware accelerated
+     */
+    public void setRenderThreadEnabled(boolean enabled) {
+        if (enabled == (ringView != null)) return;
+        if (enabled) {
+            if (Build.VERSION.SDK_INT < Build.VERSION_CODES.JELLY_BEAN_MR2)
+                throw new IllegalStateException("Render thread requires API 18 or higher");
+            if (getWindowToken() != null && !isHardwareAccelerated())
+                throw new IllegalStateException("Render thread requires hardware accelerated window");
+            ringView = new RingTextureView(getContext());
+            ringView.setOuterWidth(outerWidth);
+            ringView.setDefaultPaintColor(defaultColor);
+            // texture view is not displayed in software layer
+            setLayerType(View.LAYER_TYPE_NONE, null);
+            // placed after content child, so it is drawn above it
+            super.addView(ringView, -1, generateDefaultLayoutParams());
+            ringChanged();
+        } else {
+            super.removeView(ringView);
+            ringView = null;
+            setLayerType(View.LAYER_TYPE_SOFTWARE, null);
+            invalidate();
+        }
+    }
+
+    /**
+     * Propagate change of slices (scores or colors) to screen. Redraw of whole view is requested
+     * (merged with other requests until next frame), or new snapshot is passed to render thread
+     * when enabled.
+     */
+    private void ringChanged() {
+        if (ringView == null) {
+            requestFrame();
+        } else if (!ringPublishPosted) {
+            ringPublishPosted = true;
+            post(publishRing);
+        }
+    }
+
+    /**
+     * @return count of children excluding internal render thread view
+     */
+    private int getContentChildCount() {
+        return ringView != null ? getChildCount() - 1 : getChildCount();
     }
 
     //////////////////////////////////////////////
@@ -363,39 +1194,71 @@ public class CircularView extends ViewGroup {
     //////////////////////////////////////////////
     @Override
     public void addView(@SuppressWarnings("NullableProblems") View child) {
-        if (getChildCount() > 0)
+        if (getContentChildCount() > 0)
             throw new IllegalStateException("CircularView can host only one direct child");
         super.addView(child);
     }
 
     @Override
     public void addView(@SuppressWarnings("NullableProblems") View child, int index) {
-        if (getChildCount() > 0)
+        if (getContentChildCount() > 0)
             throw new IllegalStateException("CircularView can host only one direct child");
         super.addView(child, index);
     }
 
     @Override
     public void addView(@SuppressWarnings("NullableProblems") View child, int width, int height) {
-        if (getChildCount() > 0)
+        if (getContentChildCount() > 0)
             throw new IllegalStateException("CircularView can host only one direct child");
         super.addView(child, width, height);
     }
 
     @Override
     public void addView(@SuppressWarnings("NullableProblems") View child, ViewGroup.LayoutParams params) {
-        if (getChildCount() > 0)
+        if (getContentChildCount() > 0)
             throw new IllegalStateException("CircularView can host only one direct child");
         super.addView(child, params);
     }
 
     @Override
     public void addView(@SuppressWarnings("NullableProblems") View child, int index, ViewGroup.LayoutParams params) {
-        if (getChildCount() > 0)
+        if (getContentChildCount() > 0)
             throw new IllegalStateException("CircularView can host only one direct child");
+        // content child is always placed below render thread view
+        if (ringView != null && (index < 0 || index > getContentChildCount())) index = getContentChildCount();
         super.addView(child, index, params);
     }
 
+    @Override
+    public void removeView(View view) {
+        if (view != null && view == ringView) setRenderThreadEnabled(false);
+        else super.removeView(view);
+    }
+
+    @Override
+    public void removeViewAt(int index) {
+        if (ringView != null && getChildAt(index) == ringView) setRenderThreadEnabled(false);
+        else super.removeViewAt(index);
+    }
+
+    /**
+     * Removes content child, render thread view (placed last) is kept.
+     */
+    @Override
+    public void removeAllViews() {
+        if (ringView == null) super.removeAllViews();
+        else removeViews(0, getContentChildCount());
+    }
+
+    /**
+     * Removes content child, render thread view (placed last) is kept.
+     */
+    @Override
+    public void removeAllViewsInLayout() {
+        if (ringView == null) super.removeAllViewsInLayout();
+        else removeViewsInLayout(0, getContentChildCount());
+    }
+
     //////////////////////////////////////////////
     // LAYING DOWN THE VIEW                     //
     //////////////////////////////////////////////
@@ -412,30 +1275,19 @@ public class CircularView extends ViewGroup {
         // whole view width and height
         final int size = Math.min(MeasureSpec.getSize(widthMeasureSpec), MeasureSpec.getSize(heightMeasureSpec));
         final int padding = getMax(new int[]{getPaddingLeft(), getPaddingTop(), getPaddingRight(), getPaddingBottom()});
-        // compute outer cycle bounds (need to cut width of outer cycle because of drawArc method)
-        outerBounds.left = outerWidth / 2 + padding;
-        outerBounds.top = outerWidth / 2 + padding;
-        outerBounds.right = size - outerWidth / 2 - padding;
-        outerBounds.bottom = size - outerWidth / 2 - padding;
-
-        // compute inner cycle bounds
-        innerBounds.left = outerWidth + padding - 2;
-        innerBounds.top = outerWidth + padding - 2;
-        innerBounds.right = size - outerWidth - padding + 2;
-        innerBounds.bottom = size - outerWidth - padding + 2;
-
-        innerRadius = (innerBounds.right - innerBounds.left) / 2;
-        outerRadius = (outerBounds.right - outerBounds.left + outerWidth) / 2;
-
-        // compute clip path for inner view (added 2 pixels so the child seems antialliased)
-        center = (innerBounds.right + innerBounds.left) / 2;
-        if (!clipPath.isEmpty()) clipPath.reset();
-        clipPath.addCircle(center, center, center - outerWidth - padding + 5, Path.Direction.CW);
+        // compute bounds of both circles and clip path of inner view
+        geometry.setBounds(size, padding, outerWidth);
+        touchClassifier.update(geometry, size);
+        slicesDirty = true;
 
         // measure down the view(s)
         for (int i = 0; i < getChildCount(); i++) {
             View child = getChildAt(i);
-            if (child != null)
+            if (child != null && child == ringView) {
+                final int spec = MeasureSpec.makeMeasureSpec(size, MeasureSpec.EXACTLY);
+                ringView.setRingPadding(padding);
+                ringView.measure(spec, spec);
+            } else if (child != null)
                 measureChild(child, size - outerWidth, size - outerWidth);
         }
 
@@ -448,10 +1300,10 @@ public class CircularView extends ViewGroup {
         if (params == null) {
             params = new LayoutParams(LayoutParams.WRAP_CONTENT, LayoutParams.WRAP_CONTENT);
         }
-        params.x = innerBounds.left;
-        params.y = innerBounds.top;
-        params.width = (int) innerRadius * 2;
-        params.height = (int) innerRadius * 2;
+        params.x = geometry.innerBounds.left;
+        params.y = geometry.innerBounds.top;
+        params.width = (int) geometry.innerRadius * 2;
+        params.height = (int) geometry.innerRadius * 2;
         child.setLayoutParams(params);
         child.measure(parentWidthMeasureSpec, parentHeightMeasureSpec);
     }
@@ -461,7 +1313,9 @@ public class CircularView extends ViewGroup {
         // lay down view(s) into inner bounds
         for (int i = 0; i < getChildCount(); i++) {
             View child = getChildAt(i);
-            if (child != null) {
+            if (child != null && child == ringView) {
+                ringView.layout(0, 0, ringView.getMeasuredWidth(), ringView.getMeasuredHeight());
+            } else if (child != null) {
                 LayoutParams params = (LayoutParams) child.getLayoutParams();
                 child.layout(params.x, params.y, params.x + params.width, params.x + params.height);
             }
@@ -482,24 +1336,28 @@ public class CircularView extends ViewGroup {
      */
     @Override
     protected boolean drawChild(@SuppressWarnings("NullableProblems") Canvas canvas, @SuppressWarnings("NullableProblems") View child, long drawingTime) {
+        if (slicesOutdated() && needsPreparedSlices()) {
+            updateSlices();
+            updateSelection();
+        }
+
+        // ring drawn on render thread is placed above the child and is not clipped
+        if (child == ringView) {
+            boolean result = super.drawChild(canvas, child, drawingTime);
+            decorations.draw(canvas, geometry, scroll, labelPaint, iconAtlas);
+            return result;
+        }
+
         // draw inner circle
         canvas.save();
-        canvas.clipPath(clipPath, Region.Op.REPLACE);
+        canvas.clipPath(geometry.clipPath, Region.Op.REPLACE);
         boolean result = super.drawChild(canvas, child, drawingTime);
         canvas.restore();
 
-        // draw outer circle
-        if (outerWidth <= 0) return result;
-        float beg = 0;
-        float end;
-        if (items != null && items.size() > 0 && getSum() != 0)
-            for (Map.Entry<Object, ItemDescriptor> item : items.entrySet()) {
-                end = (item.getValue().getScore() / getSum()) * 360;
-                canvas.drawArc(outerBounds, beg + scroll, end, false, item.getValue().getPaint());
-                beg += end;
-            }
-        else {
-            canvas.drawArc(outerBounds, beg, 360, false, defaultPaint);
+        // draw outer circle (and its labels after it, unless it is drawn by render thread view)
+        if (ringView == null) {
+            ringRenderer.draw(canvas, geometry, scroll, defaultPaint);
+            decorations.draw(canvas, geometry, scroll, labelPaint, iconAtlas);
         }
         return result;
     }
@@ -613,7 +1471,10 @@ public class CircularView extends ViewGroup {
 
         this.scroll = ss.scroll;
         this.items = (HashMap<Object, ItemDescriptor>) ss.items;
+        if (order != null) order.setAll(items.values());
+        markSlicesDirty();
         this.mGestureListener.setScroll(scroll);
+        requestFrame();
     }
 
     //////////////////////////////
@@ -623,6 +1484,34 @@ public class CircularView extends ViewGroup {
     private float startY;
     private boolean shouldScroll;
 
+    // classifies touches into regions of the view and region of current gesture
+    private final RingTouchClassifier touchClassifier = new RingTouchClassifier();
+    private int touchRegion = RingTouchClassifier.OUTSIDE;
+
+    /**
+     * @param x position relative to this view
+     * @param y position relative to this view
+     * @return region of view at given position, one of {@link RingTouchClassifier#INNER},
+     * {@link RingTouchClassifier#RING}, {@link RingTouchClassifier#GAP} or {@link RingTouchClassifier#OUTSIDE}
+     */
+    public int getTouchRegion(float x, float y) {
+        return touchClassifier.classify(x, y);
+    }
+
+    /**
+     * Touches starting outside of the circle (padding, corners of child's rectangle) are not
+     * dispatched at all, so they are passed to views below this one.
+     */
+    @Override
+    public boolean dispatchTouchEvent(@SuppressWarnings("NullableProblems") MotionEvent ev) {
+        if (MotionEventCompat.getActionMasked(ev) == MotionEvent.ACTION_DOWN) {
+            touchRegion = touchClassifier.classify(ev.getX(), ev.getY());
+            if (touchRegion == RingTouchClassifier.GAP || touchRegion == RingTouchClassifier.OUTSIDE)
+                return false;
+        }
+        return super.dispatchTouchEvent(ev);
+    }
+
     @Override
     public boolean onInterceptTouchEvent(MotionEvent ev) {
         final int action = MotionEventCompat.getActionMasked(ev);
@@ -631,15 +1520,13 @@ public class CircularView extends ViewGroup {
             case MotionEvent.ACTION_DOWN:
                 mIsScrolling = false;
                 shouldScroll = false;
-                // intercept if onDown is outside inner radius
-                float distance = getDistanceFromCenter(ev.getX(), ev.getY());
-                if (distance > innerRadius && distance <= outerRadius) {
+                // intercept if onDown is on outer circle (region was classified on dispatch)
+                if (touchRegion == RingTouchClassifier.RING) {
                     startX = ev.getX();
                     startY = ev.getY();
                     shouldScroll = true;
                     return true;
                 }
-                else if (distance > outerRadius) return true;
                 break;
             case MotionEvent.ACTION_MOVE: {
                 if (!shouldScroll) break;
@@ -665,8 +1552,8 @@ public class CircularView extends ViewGroup {
      * @return distance between center and specified position
      */
     protected float getDistanceFromCenter(float x, float y) {
-        float xDist = x - center;
-        float yDist = y - center;
+        float xDist = x - geometry.center;
+        float yDist = y - geometry.center;
         return (float) Math.sqrt(xDist * xDist + yDist * yDist);
     }
 
@@ -719,6 +1606,27 @@ public class CircularView extends ViewGroup {
             mScroller.setFinalY(scroll);
         }
 
+        public boolean isFinished() {
+            return mScroller.isFinished();
+        }
+
+        /**
+         * Start fling from current position with the same velocity on both axes
+         */
+        public void fling(int velocity) {
+            mScroller.forceFinished(true);
+            mScroller.fling(
+                    mScroller.getFinalX(),
+                    mScroller.getFinalY(),
+                    velocity,
+                    velocity,
+                    Integer.MIN_VALUE,
+                    Integer.MAX_VALUE,
+                    Integer.MIN_VALUE,
+                    Integer.MAX_VALUE);
+            requestFrame();
+        }
+
         /**
          * Resolve in quadrant placement of touch gesture.
          * @param lastX X position
@@ -726,6 +1634,7 @@ public class CircularView extends ViewGroup {
          * @return touch gesture quadrant placement
          */
         private Pair getQuadrant(float lastX, float lastY) {
+            final float center = geometry.center;
             if (lastX <= center && lastY <= center)
                 return TOP_LEFT_QUADRANT;
             if (lastX >= center && lastY <= center)
@@ -743,8 +1652,10 @@ public class CircularView extends ViewGroup {
             // force finish and reset scrolling
             resetScroll = true;
             mScroller.forceFinished(true);
+            // circle stays where it stopped, so there is nothing to redraw until touch becomes scroll,
+            // but selection throttled during stopped fling has to be delivered now
+            if (selectionPending) notifySelection();
             quadrant = getQuadrant(event.getX(), event.getY());
-            ViewCompat.postInvalidateOnAnimation(CircularView.this);
             return true;
         }
 
@@ -762,7 +1673,7 @@ public class CircularView extends ViewGroup {
                     Integer.MAX_VALUE,
                     Integer.MIN_VALUE,
                     Integer.MAX_VALUE);
-            ViewCompat.postInvalidateOnAnimation(CircularView.this);
+            requestFrame();
             quadrant = getQuadrant(event2.getX(), event2.getY());
             return true;
         }
@@ -784,22 +1695,22 @@ public class CircularView extends ViewGroup {
                     mScroller.getFinalY(),
                     (int) ((quadrant.x) * distanceX),
                     (int) ((quadrant.y) * distanceY), 0);
-            ViewCompat.postInvalidateOnAnimation(CircularView.this);
+            requestFrame();
             quadrant = getQuadrant(e2.getX(), e2.getY());
             return true;
         }
 
         /**
-         * Based on current scroll calls {@link sk.kandrac.circularview.CircularView#setScroll(int)}.
-         * When scroll is not finished CircularView should call invalidate, otherwise some animations
-         * will not be displayed (most common example is flinging animation). Scroll is computed from
+         * Based on current scroll updates scroll of CircularView. Nothing is updated once scroller
+         * is finished. When scroll is not finished CircularView should request next frame, otherwise
+         * some animations will not be displayed (most common example is flinging animation).
          *
-         * @return true if invalidation is needed
+         * @return true if next frame is needed
          */
         public boolean computeScroll() {
-            boolean result = mScroller.computeScrollOffset();
-            CircularView.this.setScroll((int)(rotateSpeed * (mScroller.getCurrX() + mScroller.getCurrY()) / 2));
-            return result;
+            if (!mScroller.computeScrollOffset()) return false;
+            applyScroll((int) (rotateSpeed * (mScroller.getCurrX() + mScroller.getCurrY()) / 2));
+            return !mScroller.isFinished();
         }
     }
 
@@ -809,7 +1720,29 @@ public class CircularView extends ViewGroup {
      * @param scroll to be set
      */
     public void setScroll(int scroll){
+        if (applyScroll(scroll)) requestFrame();
+    }
+
+    /**
+     * Set scroll without invalidation (used while drawing)
+     *
+     * @return true if scroll changed
+     */
+    private boolean applyScroll(int scroll){
+        if (this.scroll == scroll) return false;
         this.scroll = scroll;
+        if (ringView != null) ringView.setRingScroll(scroll);
+        updateSelection();
+        return true;
+    }
+
+    /**
+     * Fling circle programmatically as if user flung it.
+     *
+     * @param velocity initial velocity in pixels per second, positive to rotate clockwise
+     */
+    public void fling(int velocity){
+        mGestureListener.fling(velocity);
     }
 
     /**
@@ -824,8 +1757,61 @@ public class CircularView extends ViewGroup {
         throw new IllegalStateException("Method not supported, use scrollTo(int) instead");
     }
 
+    /**
+     * Request redraw on next animation frame. Multiple requests before the frame is drawn are
+     * merged into one.
+     */
+    private void requestFrame() {
+        if (frameRequested) return;
+        frameRequested = true;
+        ViewCompat.postInvalidateOnAnimation(this);
+    }
+
+    /**
+     * Mark slices to be rebuilt because items changed (not only geometry).
+     */
+    private void markSlicesDirty() {
+        slicesDirty = true;
+        snapshotDirty = true;
+    }
+
+    /**
+     * Mark angles of prepared slices to be recomputed because scores changed in place.
+     */
+    private void markAnglesDirty() {
+        anglesDirty = true;
+        snapshotDirty = true;
+    }
+
+    /**
+     * @return true if circle is not animating and no redraw nor change of data is pending
+     */
+    public boolean isIdle() {
+        final boolean dataPending;
+        if (ringPublishPosted) dataPending = true;
+        else if (ringView != null && !needsPreparedSlices()) dataPending = snapshotDirty;
+        else dataPending = slicesOutdated();
+        return !frameRequested && !dataPending && mGestureListener.isFinished();
+    }
+
+    @Override
+    protected void onAttachedToWindow() {
+        super.onAttachedToWindow();
+        // texture view displays nothing in software rendered window, draw ring together with child
+        if (ringView != null && !isHardwareAccelerated()) setRenderThreadEnabled(false);
+    }
+
+    @Override
+    protected void onDetachedFromWindow() {
+        super.onDetachedFromWindow();
+        // detached view is not drawn, so requested frame would never come
+        frameRequested = false;
+    }
+
     @Override
     public void computeScroll() {
-        if (mGestureListener.computeScroll()) ViewCompat.postInvalidateOnAnimation(this);
+        frameRequested = false;
+        if (mGestureListener.computeScroll()) requestFrame();
+        else if (selectionPending) notifySelection();
     }
 }
\ No newline at end of file
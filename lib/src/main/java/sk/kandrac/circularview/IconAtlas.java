@@ -0,0 +1,210 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.PorterDuff;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.drawable.Drawable;
+
+import java.util.HashMap;
+
+/**
+ * Icons displayed on slices of outer circle rasterized into single bitmap. Every icon occupies
+ * one square cell of the atlas, so drawing of all icons uses the same bitmap and only source
+ * rectangle differs. Same icon (drawables sharing constant state, or the same key) added multiple
+ * times occupies single cell. Cells are reference counted, cell released by all its users is
+ * reused by next added icon, so the atlas grows only with count of icons used at once. Atlas may
+ * be shared by more {@link CircularView}s (see {@link CircularView#setIconAtlas(IconAtlas)}).
+ * <p/>
+ * Atlas is not thread safe and should be used from UI thread only.
+ */
+public class IconAtlas {
+
+    // count of cells in one row of atlas bitmap
+    private static final int COLUMNS = 8;
+
+    private final int cellSize;
+    private final Paint paint;
+    private final Rect srcRect = new Rect();
+    private final Rect savedBounds = new Rect();
+    private final HashMap<Object, Integer> indices = new HashMap<Object, Integer>();
+
+    private Bitmap atlas;
+    private Canvas atlasCanvas;
+    private int rows;
+
+    // per cell key and count of references (arrays grow only, cells holds number of used cells)
+    private Object[] keys = new Object[0];
+    private int[] references = new int[0];
+    private int cells;
+    private int count;
+
+    // released cells to be reused (stack)
+    private int[] freeCells = new int[0];
+    private int freeCount;
+
+    /**
+     * @param cellSize width and height of single icon in atlas in pixels
+     */
+    public IconAtlas(int cellSize) {
+        this.cellSize = cellSize;
+        this.paint = new Paint();
+        this.paint.setFilterBitmap(true);
+        this.paint.setAntiAlias(true);
+    }
+
+    public int getCellSize() {
+        return cellSize;
+    }
+
+    /**
+     * @return count of icons stored in atlas
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * Rasterize drawable into atlas and add reference to its cell. Drawables sharing constant
+     * state (e.g. loaded from the same resource) are stored in single cell.
+     *
+     * @param drawable icon to add
+     * @return index of cell icon is stored in
+     */
+    public int add(Drawable drawable) {
+        Drawable.ConstantState state = drawable.getConstantState();
+        return add(state != null ? state : drawable, drawable);
+    }
+
+    /**
+     * Rasterize drawable into atlas under given key (e.g. drawable resource id) and add reference
+     * to its cell. If the key was already added, drawable is not rasterized again and index of
+     * existing cell is returned. Bounds of drawable are restored after rasterization, so it may be
+     * displayed elsewhere at the same time.
+     *
+     * @param key      identifying icon
+     * @param drawable icon to add
+     * @return index of cell icon is stored in
+     */
+    public int add(Object key, Drawable drawable) {
+        int index = acquire(key);
+        if (index >= 0) return index;
+
+        index = obtainCell();
+        int left = (index % COLUMNS) * cellSize;
+        int top = (index / COLUMNS) * cellSize;
+        drawable.copyBounds(savedBounds);
+        drawable.setBounds(left, top, left + cellSize, top + cellSize);
+        drawable.draw(atlasCanvas);
+        drawable.setBounds(savedBounds);
+
+        keys[index] = key;
+        references[index] = 1;
+        indices.put(key, index);
+        count++;
+        return index;
+    }
+
+    /**
+     * Add reference to icon already stored under given key.
+     *
+     * @param key identifying icon
+     * @return index of cell of icon, or -1 if no such icon exists (no reference is added)
+     */
+    public int acquire(Object key) {
+        Integer index = indices.get(key);
+        if (index == null) return -1;
+        references[index]++;
+        return index;
+    }
+
+    /**
+     * Remove one reference of icon. When icon is not referenced anymore its cell is freed and
+     * reused by next added icon.
+     *
+     * @param index of icon cell
+     */
+    public void release(int index) {
+        if (index < 0 || index >= cells || references[index] == 0) return;
+        if (--references[index] > 0) return;
+        indices.remove(keys[index]);
+        keys[index] = null;
+        count--;
+        if (freeCount == freeCells.length) {
+            int[] newFree = new int[Math.max(8, freeCount * 2)];
+            System.arraycopy(freeCells, 0, newFree, 0, freeCount);
+            freeCells = newFree;
+        }
+        freeCells[freeCount++] = index;
+    }
+
+    /**
+     * @param key identifying icon
+     * @return index of cell of icon stored under the key, or -1 if no such icon exists
+     */
+    public int indexOf(Object key) {
+        Integer index = indices.get(key);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * Draw icon stored in atlas.
+     *
+     * @param canvas to draw to
+     * @param index  of icon cell
+     * @param dst    destination rectangle, icon is scaled to fit it
+     */
+    public void draw(Canvas canvas, int index, RectF dst) {
+        int left = (index % COLUMNS) * cellSize;
+        int top = (index / COLUMNS) * cellSize;
+        srcRect.set(left, top, left + cellSize, top + cellSize);
+        canvas.drawBitmap(atlas, srcRect, dst, paint);
+    }
+
+    /**
+     * @return index of free cell (released one is cleared and reused, new one is allocated if
+     * there is none)
+     */
+    private int obtainCell() {
+        if (freeCount > 0) {
+            int index = freeCells[--freeCount];
+            int left = (index % COLUMNS) * cellSize;
+            int top = (index / COLUMNS) * cellSize;
+            atlasCanvas.save();
+            atlasCanvas.clipRect(left, top, left + cellSize, top + cellSize);
+            atlasCanvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            atlasCanvas.restore();
+            return index;
+        }
+        ensureCapacity(cells + 1);
+        return cells++;
+    }
+
+    /**
+     * Grow atlas bitmap (by doubling count of rows) so it can hold given count of icons. Previous
+     * bitmap is not recycled, it may still be referenced by display lists of views sharing the
+     * atlas until they are redrawn.
+     */
+    private void ensureCapacity(int capacity) {
+        if (rows * COLUMNS >= capacity) return;
+        int newRows = Math.max(1, rows * 2);
+        while (newRows * COLUMNS < capacity) newRows *= 2;
+
+        Bitmap newAtlas = Bitmap.createBitmap(COLUMNS * cellSize, newRows * cellSize, Bitmap.Config.ARGB_8888);
+        Canvas newCanvas = new Canvas(newAtlas);
+        if (atlas != null) newCanvas.drawBitmap(atlas, 0, 0, null);
+        atlas = newAtlas;
+        atlasCanvas = newCanvas;
+        rows = newRows;
+
+        Object[] newKeys = new Object[newRows * COLUMNS];
+        int[] newReferences = new int[newRows * COLUMNS];
+        System.arraycopy(keys, 0, newKeys, 0, cells);
+        System.arraycopy(references, 0, newReferences, 0, cells);
+        keys = newKeys;
+        references = newReferences;
+    }
+}
@@ -0,0 +1,315 @@
+package sk.kandrac.circularview;
+
+import java.util.Collection;
+
+/**
+ * Item descriptors ordered by descending score. Order is kept in a treap (randomized balanced
+ * binary search tree) with subtree sizes, so adding, removing or moving single item after its
+ * score changed, as well as finding item at given position or position of given item, takes
+ * O(log n) expected time. Every descriptor knows its node in the tree, so it is never searched
+ * for. Nodes are stored in parallel arrays reused through free list, so changes of order do not
+ * allocate. Sum of all scores is maintained together with the order, so top items and remainder of
+ * the sum can be obtained without visiting all items.
+ */
+class ItemOrder {
+
+    private static final int NIL = -1;
+
+    // nodes of the tree (arrays grow only, free nodes are linked through right)
+    private CircularView.ItemDescriptor[] items;
+    private float[] keys;
+    private int[] priorities;
+    private int[] left;
+    private int[] right;
+    private int[] parent;
+    private int[] sizes;
+
+    private int root = NIL;
+    private int freeNodes = NIL;
+    private int usedNodes;
+
+    private int size;
+    private double sum;
+
+    // state of xorshift generator of node priorities
+    private int seed = 0x2545F491;
+
+    ItemOrder(int capacity) {
+        allocate(Math.max(capacity, 8));
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return sum of scores of all items
+     */
+    double getSum() {
+        return sum;
+    }
+
+    /**
+     * @param position in order (0 is item with highest score)
+     * @return descriptor placed at given position
+     */
+    CircularView.ItemDescriptor get(int position) {
+        int node = root;
+        while (true) {
+            final int leftSize = sizeOf(left[node]);
+            if (position < leftSize) {
+                node = left[node];
+            } else if (position == leftSize) {
+                return items[node];
+            } else {
+                position -= leftSize + 1;
+                node = right[node];
+            }
+        }
+    }
+
+    /**
+     * @return descriptor with highest score, null if order is empty
+     */
+    CircularView.ItemDescriptor first() {
+        if (root == NIL) return null;
+        int node = root;
+        while (left[node] != NIL) node = left[node];
+        return items[node];
+    }
+
+    /**
+     * @param descriptor placed in this order
+     * @return descriptor following given one, null if given one is the last
+     */
+    CircularView.ItemDescriptor next(CircularView.ItemDescriptor descriptor) {
+        int node = descriptor.orderNode;
+        if (right[node] != NIL) {
+            node = right[node];
+            while (left[node] != NIL) node = left[node];
+            return items[node];
+        }
+        while (parent[node] != NIL && right[parent[node]] == node) node = parent[node];
+        node = parent[node];
+        return node != NIL ? items[node] : null;
+    }
+
+    /**
+     * @param descriptor placed in this order
+     * @return position of descriptor in order (0 is item with highest score)
+     */
+    int positionOf(CircularView.ItemDescriptor descriptor) {
+        int node = descriptor.orderNode;
+        int position = sizeOf(left[node]);
+        while (parent[node] != NIL) {
+            if (right[parent[node]] == node) position += sizeOf(left[parent[node]]) + 1;
+            node = parent[node];
+        }
+        return position;
+    }
+
+    /**
+     * @return true if descriptor is placed in this order
+     */
+    boolean contains(CircularView.ItemDescriptor descriptor) {
+        int node = descriptor.orderNode;
+        return node >= 0 && node < usedNodes && items[node] == descriptor;
+    }
+
+    /**
+     * Replace content of the order with given descriptors.
+     */
+    void setAll(Collection<CircularView.ItemDescriptor> descriptors) {
+        clear();
+        if (items.length < descriptors.size()) allocate(descriptors.size());
+        for (CircularView.ItemDescriptor descriptor : descriptors) {
+            add(descriptor);
+        }
+    }
+
+    /**
+     * Insert descriptor to its position by score (after items with the same score).
+     */
+    void add(CircularView.ItemDescriptor descriptor) {
+        int node;
+        if (freeNodes != NIL) {
+            node = freeNodes;
+            freeNodes = right[node];
+        } else {
+            if (usedNodes == items.length) allocate(usedNodes * 2);
+            node = usedNodes++;
+        }
+        items[node] = descriptor;
+        priorities[node] = nextPriority();
+        descriptor.orderNode = node;
+        insert(node);
+        size++;
+        sum += descriptor.getScore();
+    }
+
+    /**
+     * Remove descriptor from order.
+     */
+    void remove(CircularView.ItemDescriptor descriptor) {
+        final int node = descriptor.orderNode;
+        detach(node);
+        items[node] = null;
+        right[node] = freeNodes;
+        freeNodes = node;
+        descriptor.orderNode = -1;
+        size--;
+        sum -= descriptor.getScore();
+    }
+
+    /**
+     * Move descriptor after its score changed.
+     *
+     * @param descriptor which score changed
+     * @param oldScore   score before the change
+     */
+    void update(CircularView.ItemDescriptor descriptor, float oldScore) {
+        final int node = descriptor.orderNode;
+        sum += descriptor.getScore() - oldScore;
+        detach(node);
+        insert(node);
+    }
+
+    /**
+     * Remove all items keeping allocated capacity.
+     */
+    void clear() {
+        for (int i = 0; i < usedNodes; i++) {
+            if (items[i] != null) items[i].orderNode = -1;
+            items[i] = null;
+        }
+        root = NIL;
+        freeNodes = NIL;
+        usedNodes = 0;
+        size = 0;
+        sum = 0;
+    }
+
+    /**
+     * Link node holding descriptor into the tree by score of the descriptor and rotate it up until
+     * heap order of priorities holds.
+     */
+    private void insert(int node) {
+        final float key = items[node].getScore();
+        keys[node] = key;
+        left[node] = NIL;
+        right[node] = NIL;
+        sizes[node] = 1;
+
+        int above = NIL;
+        int current = root;
+        while (current != NIL) {
+            sizes[current]++;
+            above = current;
+            current = key > keys[current] ? left[current] : right[current];
+        }
+        parent[node] = above;
+        if (above == NIL) root = node;
+        else if (key > keys[above]) left[above] = node;
+        else right[above] = node;
+
+        while (parent[node] != NIL && priorities[node] > priorities[parent[node]]) {
+            if (left[parent[node]] == node) rotateRight(parent[node]);
+            else rotateLeft(parent[node]);
+        }
+    }
+
+    /**
+     * Rotate node down until it becomes a leaf and unlink it from the tree.
+     */
+    private void detach(int node) {
+        while (left[node] != NIL || right[node] != NIL) {
+            if (right[node] == NIL || (left[node] != NIL && priorities[left[node]] > priorities[right[node]])) {
+                rotateRight(node);
+            } else {
+                rotateLeft(node);
+            }
+        }
+        final int above = parent[node];
+        if (above == NIL) root = NIL;
+        else if (left[above] == node) left[above] = NIL;
+        else right[above] = NIL;
+        for (int current = above; current != NIL; current = parent[current]) sizes[current]--;
+        parent[node] = NIL;
+    }
+
+    /**
+     * Replace node by its left child, node becomes right child of it.
+     */
+    private void rotateRight(int node) {
+        final int child = left[node];
+        left[node] = right[child];
+        if (right[child] != NIL) parent[right[child]] = node;
+        replaceChild(parent[node], node, child);
+        right[child] = node;
+        parent[node] = child;
+        updateSize(node);
+        updateSize(child);
+    }
+
+    /**
+     * Replace node by its right child, node becomes left child of it.
+     */
+    private void rotateLeft(int node) {
+        final int child = right[node];
+        right[node] = left[child];
+        if (left[child] != NIL) parent[left[child]] = node;
+        replaceChild(parent[node], node, child);
+        left[child] = node;
+        parent[node] = child;
+        updateSize(node);
+        updateSize(child);
+    }
+
+    private void replaceChild(int above, int oldChild, int newChild) {
+        parent[newChild] = above;
+        if (above == NIL) root = newChild;
+        else if (left[above] == oldChild) left[above] = newChild;
+        else right[above] = newChild;
+    }
+
+    private void updateSize(int node) {
+        sizes[node] = 1 + sizeOf(left[node]) + sizeOf(right[node]);
+    }
+
+    private int sizeOf(int node) {
+        return node != NIL ? sizes[node] : 0;
+    }
+
+    private int nextPriority() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return seed;
+    }
+
+    private void allocate(int capacity) {
+        CircularView.ItemDescriptor[] newItems = new CircularView.ItemDescriptor[capacity];
+        float[] newKeys = new float[capacity];
+        int[] newPriorities = new int[capacity];
+        int[] newLeft = new int[capacity];
+        int[] newRight = new int[capacity];
+        int[] newParent = new int[capacity];
+        int[] newSizes = new int[capacity];
+        if (items != null) {
+            System.arraycopy(items, 0, newItems, 0, usedNodes);
+            System.arraycopy(keys, 0, newKeys, 0, usedNodes);
+            System.arraycopy(priorities, 0, newPriorities, 0, usedNodes);
+            System.arraycopy(left, 0, newLeft, 0, usedNodes);
+            System.arraycopy(right, 0, newRight, 0, usedNodes);
+            System.arraycopy(parent, 0, newParent, 0, usedNodes);
+            System.arraycopy(sizes, 0, newSizes, 0, usedNodes);
+        }
+        items = newItems;
+        keys = newKeys;
+        priorities = newPriorities;
+        left = newLeft;
+        right = newRight;
+        parent = newParent;
+        sizes = newSizes;
+    }
+}
@@ -0,0 +1,39 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Picture;
+
+/**
+ * Records arcs of all slices into {@link android.graphics.Picture} once per geometry change and
+ * replays it rotated. Item paints are respected as in {@link sk.kandrac.circularview.ArcRingRenderer},
+ * but each frame issues only one draw call. Hardware accelerated canvas supports pictures since
+ * API 23.
+ */
+public class PictureRingRenderer implements RingRenderer {
+
+    private final Picture picture = new Picture();
+
+    private RingGeometry cachedGeometry;
+    private int cachedVersion;
+
+    @Override
+    public void draw(Canvas canvas, RingGeometry geometry, float rotation, Paint defaultPaint) {
+        if (geometry.count == 0 || geometry.outerWidth <= 0) {
+            geometry.drawRing(canvas, rotation, defaultPaint);
+            return;
+        }
+        if (geometry != cachedGeometry || geometry.version != cachedVersion) {
+            int size = (int) Math.ceil(geometry.outerBounds.right + geometry.outerWidth / 2f);
+            Canvas recording = picture.beginRecording(size, size);
+            geometry.drawRing(recording, 0, defaultPaint);
+            picture.endRecording();
+            cachedGeometry = geometry;
+            cachedVersion = geometry.version;
+        }
+        canvas.save();
+        canvas.rotate(rotation, geometry.center, geometry.center);
+        canvas.drawPicture(picture);
+        canvas.restore();
+    }
+}
@@ -0,0 +1,173 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+/**
+ * Labels and icons placed at midpoints of slices of outer circle. Layout (midpoint angles,
+ * measured widths and visibility of overlapping decorations) is computed only when slices change.
+ * Rotation of circle only moves already laid out decorations around the center.
+ */
+class RingDecorations {
+
+    // space between icon and label in pixels
+    private static final float ICON_GAP = 4;
+
+    // per slice data (arrays grow only, count holds number of valid entries)
+    private int count;
+    private String[] labels = new String[0];
+    private float[] labelWidths = new float[0];
+    private int[] iconIndices = new int[0];
+    private float[] midAngles = new float[0];
+    private boolean[] visible = new boolean[0];
+
+    // whether at least one slice has label or icon
+    private boolean hasDecorations;
+
+    // size of icons and vertical offset of label baseline from midpoint
+    private float iconSize;
+    private float baselineOffset;
+
+    private final RectF iconBounds = new RectF();
+
+    /**
+     * Make sure arrays can hold at least given count of slices
+     */
+    void ensureCapacity(int capacity) {
+        if (labels.length >= capacity) return;
+        int newCapacity = Math.max(capacity, labels.length * 2);
+        String[] newLabels = new String[newCapacity];
+        float[] newWidths = new float[newCapacity];
+        int[] newIcons = new int[newCapacity];
+        System.arraycopy(labels, 0, newLabels, 0, count);
+        System.arraycopy(labelWidths, 0, newWidths, 0, count);
+        System.arraycopy(iconIndices, 0, newIcons, 0, count);
+        labels = newLabels;
+        labelWidths = newWidths;
+        iconIndices = newIcons;
+        midAngles = new float[newCapacity];
+        visible = new boolean[newCapacity];
+    }
+
+    /**
+     * Set decoration of slice. Label width has to be already measured (it is cached in item
+     * descriptor, so text is never measured during layout).
+     *
+     * @param index      of slice
+     * @param label      text to display, may be null
+     * @param labelWidth measured width of label
+     * @param iconIndex  index of icon in atlas, or -1 if slice has no icon
+     */
+    void set(int index, String label, float labelWidth, int iconIndex) {
+        labels[index] = label;
+        labelWidths[index] = label != null ? labelWidth : 0;
+        iconIndices[index] = iconIndex;
+    }
+
+    /**
+     * Move decoration of slice to another index (used when removed slices are compacted).
+     *
+     * @param from index of slice decoration is set for
+     * @param to   index decoration is moved to
+     */
+    void move(int from, int to) {
+        labels[to] = labels[from];
+        labelWidths[to] = labelWidths[from];
+        iconIndices[to] = iconIndices[from];
+    }
+
+    /**
+     * Compute midpoint angle of each slice and hide decorations overlapping previous visible ones.
+     *
+     * @param geometry  prepared geometry of slices
+     * @param count     count of slices decorations were set for
+     * @param labelPaint paint labels are drawn with
+     */
+    void layout(RingGeometry geometry, int count, Paint labelPaint) {
+        this.count = Math.min(count, geometry.count);
+        this.iconSize = geometry.outerWidth * 0.8f;
+        this.baselineOffset = -(labelPaint.ascent() + labelPaint.descent()) / 2;
+        this.hasDecorations = false;
+        final float textHeight = labelPaint.descent() - labelPaint.ascent();
+
+        // radius in the middle of outer circle stroke
+        final float radius = (geometry.outerBounds.right - geometry.outerBounds.left) / 2;
+
+        float firstStart = 0;
+        float lastEnd = Float.NEGATIVE_INFINITY;
+        for (int i = 0; i < this.count; i++) {
+            midAngles[i] = geometry.startAngles[i] + geometry.sweepAngles[i] / 2;
+            float width = getWidth(i);
+            if (width == 0 || radius <= 0) {
+                visible[i] = false;
+                continue;
+            }
+
+            // decorations are drawn upright, so their footprint along the circle depends on
+            // rotation; diagonal of decoration bounds is used as rotation independent extent
+            float height = labels[i] != null ? textHeight : 0;
+            if (iconIndices[i] >= 0) height = Math.max(height, iconSize);
+            float extent = (float) Math.hypot(width, height);
+
+            // angular extent of decoration measured on the middle of outer circle
+            float halfAngle = (float) Math.toDegrees(extent / 2 / radius);
+            float start = midAngles[i] - halfAngle;
+            float end = midAngles[i] + halfAngle;
+            visible[i] = start >= lastEnd && (!hasDecorations || end <= firstStart + 360);
+            if (visible[i]) {
+                if (!hasDecorations) firstStart = start;
+                lastEnd = end;
+                hasDecorations = true;
+            }
+        }
+    }
+
+    /**
+     * @return true if at least one decoration is displayed
+     */
+    boolean isVisible() {
+        return hasDecorations;
+    }
+
+    /**
+     * Draw visible decorations rotated by given scroll.
+     *
+     * @param canvas     to draw to
+     * @param geometry   prepared geometry of slices
+     * @param scroll     rotation of circle in degrees
+     * @param labelPaint paint labels are drawn with (center aligned)
+     * @param atlas      atlas icons are stored in, may be null
+     */
+    void draw(Canvas canvas, RingGeometry geometry, float scroll, Paint labelPaint, IconAtlas atlas) {
+        if (!hasDecorations || geometry.outerWidth <= 0) return;
+        final float center = geometry.center;
+        final float radius = (geometry.outerBounds.right - geometry.outerBounds.left) / 2;
+
+        for (int i = 0; i < count; i++) {
+            if (!visible[i]) continue;
+            double angle = Math.toRadians(midAngles[i] + scroll);
+            float x = center + radius * (float) Math.cos(angle);
+            float y = center + radius * (float) Math.sin(angle);
+            float left = x - getWidth(i) / 2;
+
+            if (iconIndices[i] >= 0 && atlas != null) {
+                iconBounds.set(left, y - iconSize / 2, left + iconSize, y + iconSize / 2);
+                atlas.draw(canvas, iconIndices[i], iconBounds);
+                left += iconSize + ICON_GAP;
+            }
+            if (labels[i] != null) {
+                canvas.drawText(labels[i], left + labelWidths[i] / 2, y + baselineOffset, labelPaint);
+            }
+        }
+    }
+
+    /**
+     * @return whole width of decoration (icon and label)
+     */
+    private float getWidth(int index) {
+        float width = labelWidths[index];
+        if (iconIndices[index] >= 0) width += labels[index] != null ? iconSize + ICON_GAP : iconSize;
+        return width;
+    }
+}
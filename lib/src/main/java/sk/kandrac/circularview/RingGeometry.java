@@ -0,0 +1,269 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+/**
+ * Prepared geometry of the ring shared by {@link sk.kandrac.circularview.CircularView} and
+ * {@link sk.kandrac.circularview.CircularRenderer}. Holds bounds of both circles, clip path for
+ * the inner content and start/sweep angle of every slice, so drawing itself does not need to
+ * compute anything.
+ * <p/>
+ * Instances are not thread safe. Each view or renderer owns its own geometry.
+ */
+public class RingGeometry {
+
+    // bounds used by drawArc method (substracted by half of width of outer circle)
+    final RectF outerBounds = new RectF();
+
+    // rectangular bounds of child view
+    final Rect innerBounds = new Rect();
+
+    // clip path where child should be placed
+    final Path clipPath = new Path();
+
+    // center position of view (same for X and Y position)
+    float center;
+
+    // inner and outer circle radius
+    float innerRadius;
+    float outerRadius;
+
+    // width of outer circle
+    int outerWidth;
+
+    // incremented on every change of bounds or slices, so renderers may cache derived data
+    int version;
+
+    // prepared slices (arrays grow only, count holds number of valid entries)
+    int count;
+    float[] startAngles = new float[0];
+    float[] sweepAngles = new float[0];
+    Paint[] paints = new Paint[0];
+
+    /**
+     * Compute bounds of both circles for square area of given size.
+     *
+     * @param size       width and height of drawing area
+     * @param padding    padding applied on each side
+     * @param outerWidth width of outer circle
+     */
+    public void setBounds(int size, int padding, int outerWidth) {
+        this.outerWidth = outerWidth;
+        this.version++;
+
+        // compute outer cycle bounds (need to cut width of outer cycle because of drawArc method)
+        outerBounds.left = outerWidth / 2 + padding;
+        outerBounds.top = outerWidth / 2 + padding;
+        outerBounds.right = size - outerWidth / 2 - padding;
+        outerBounds.bottom = size - outerWidth / 2 - padding;
+
+        // compute inner cycle bounds
+        innerBounds.left = outerWidth + padding - 2;
+        innerBounds.top = outerWidth + padding - 2;
+        innerBounds.right = size - outerWidth - padding + 2;
+        innerBounds.bottom = size - outerWidth - padding + 2;
+
+        innerRadius = (innerBounds.right - innerBounds.left) / 2;
+        outerRadius = (outerBounds.right - outerBounds.left + outerWidth) / 2;
+
+        // compute clip path for inner view (added 2 pixels so the child seems antialliased)
+        center = (innerBounds.right + innerBounds.left) / 2;
+        if (!clipPath.isEmpty()) clipPath.reset();
+        clipPath.addCircle(center, center, center - outerWidth - padding + 5, Path.Direction.CW);
+    }
+
+    /**
+     * Make sure slice arrays can hold at least given count of slices. Already allocated capacity
+     * is never released.
+     *
+     * @param capacity required capacity
+     */
+    void ensureCapacity(int capacity) {
+        if (startAngles.length >= capacity) return;
+        int newCapacity = Math.max(capacity, startAngles.length * 2);
+        float[] newStarts = new float[newCapacity];
+        float[] newSweeps = new float[newCapacity];
+        Paint[] newPaints = new Paint[newCapacity];
+        System.arraycopy(startAngles, 0, newStarts, 0, count);
+        System.arraycopy(sweepAngles, 0, newSweeps, 0, count);
+        System.arraycopy(paints, 0, newPaints, 0, paints.length);
+        startAngles = newStarts;
+        sweepAngles = newSweeps;
+        paints = newPaints;
+    }
+
+    /**
+     * Compute start and sweep angles of slices from their scores. Paints must be filled by caller
+     * for the first {@code count} slices.
+     *
+     * @param scores scores of slices
+     * @param count  number of valid entries in scores array
+     */
+    void setSlices(float[] scores, int count) {
+        ensureCapacity(count);
+        this.count = count;
+        this.version++;
+
+        float sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += scores[i];
+        }
+        if (sum == 0) {
+            this.count = 0;
+            return;
+        }
+
+        float beg = 0;
+        for (int i = 0; i < count; i++) {
+            startAngles[i] = beg;
+            sweepAngles[i] = scores[i] / sum * 360;
+            beg += sweepAngles[i];
+        }
+    }
+
+    /**
+     * @return count of prepared slices, 0 if there is nothing to draw except the default ring
+     */
+    public int getSliceCount() {
+        return count;
+    }
+
+    /**
+     * @param index of slice
+     * @return start angle of slice without rotation applied
+     */
+    public float getStartAngle(int index) {
+        return startAngles[index];
+    }
+
+    /**
+     * @param index of slice
+     * @return sweep angle of slice
+     */
+    public float getSweepAngle(int index) {
+        return sweepAngles[index];
+    }
+
+    /**
+     * Find slice containing given angle. Search starts at hinted slice and walks in direction of
+     * the angle (forward if angle lies after hinted slice, backward if before), so when angle
+     * changes only slightly (e.g. while the circle rotates) only few slices are visited.
+     *
+     * @param angle angle without rotation applied, any value (normalized to 0-360)
+     * @param hint  index of slice to start with (e.g. previously found slice)
+     * @return index of slice containing angle, or -1 if there are no slices
+     */
+    public int indexAt(float angle, int hint) {
+        return indexAt(angle, hint, 0);
+    }
+
+    /**
+     * Find slice containing given angle. Search starts at hinted slice and walks in given direction
+     * wrapping around 0/360 degrees, so when the circle rotates only slices crossed since the hinted
+     * one are visited, even when the rotation passes the start of the first slice.
+     *
+     * @param angle     angle without rotation applied, any value (normalized to 0-360)
+     * @param hint      index of slice to start with (e.g. previously found slice)
+     * @param direction positive if angle increased since the hint was found, negative if it
+     *                  decreased, 0 if unknown (walks without wrapping towards the angle)
+     * @return index of slice containing angle, or -1 if there are no slices
+     */
+    public int indexAt(float angle, int hint, int direction) {
+        if (count == 0) return -1;
+        angle %= 360;
+        if (angle < 0) angle += 360;
+
+        int index = hint >= 0 && hint < count ? hint : 0;
+        if (direction == 0) {
+            if (angle < startAngles[index]) {
+                while (index > 0 && angle < startAngles[index]) index--;
+            } else {
+                while (index < count - 1 && angle >= startAngles[index] + sweepAngles[index]) index++;
+            }
+            return index;
+        }
+
+        for (int visited = 0; visited < count && !contains(index, angle); visited++) {
+            index = direction > 0 ? index + 1 : index - 1;
+            if (index == count) index = 0;
+            else if (index < 0) index = count - 1;
+        }
+        return index;
+    }
+
+    /**
+     * @return true if slice contains given normalized angle (last slice reaches up to 360 degrees,
+     * so rounding of sweep angles does not leave gap at the end)
+     */
+    private boolean contains(int index, float angle) {
+        return angle >= startAngles[index]
+                && (angle < startAngles[index] + sweepAngles[index] || index == count - 1);
+    }
+
+    public RectF getOuterBounds() {
+        return outerBounds;
+    }
+
+    public Rect getInnerBounds() {
+        return innerBounds;
+    }
+
+    public Path getClipPath() {
+        return clipPath;
+    }
+
+    public float getCenter() {
+        return center;
+    }
+
+    public float getInnerRadius() {
+        return innerRadius;
+    }
+
+    public float getOuterRadius() {
+        return outerRadius;
+    }
+
+    public int getOuterWidth() {
+        return outerWidth;
+    }
+
+    /**
+     * @return number changed whenever bounds or slices change (derived data may be cached until
+     * the version changes)
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @param index of slice
+     * @return paint slice is drawn with
+     */
+    public Paint getPaint(int index) {
+        return paints[index];
+    }
+
+    /**
+     * Draw outer circle arc by arc. When no slice is prepared whole circle is drawn with default
+     * paint. This is the drawing used by {@link sk.kandrac.circularview.ArcRingRenderer}.
+     *
+     * @param canvas       to draw to
+     * @param scroll       rotation of circle in degrees
+     * @param defaultPaint paint used when there are no slices
+     */
+    public void drawRing(Canvas canvas, float scroll, Paint defaultPaint) {
+        if (outerWidth <= 0) return;
+        if (count > 0) {
+            for (int i = 0; i < count; i++) {
+                canvas.drawArc(outerBounds, startAngles[i] + scroll, sweepAngles[i], false, paints[i]);
+            }
+        } else {
+            canvas.drawArc(outerBounds, 0, 360, false, defaultPaint);
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Canvas;
+import android.graphics.Paint;
+
+/**
+ * Strategy drawing outer circle from prepared {@link sk.kandrac.circularview.RingGeometry}. Used
+ * by {@link CircularView} and {@link sk.kandrac.circularview.CircularRenderer}, see
+ * {@link CircularView#setRingRenderer(RingRenderer)}. Built-in implementations are
+ * {@link sk.kandrac.circularview.ArcRingRenderer}, {@link sk.kandrac.circularview.ShaderRingRenderer},
+ * {@link sk.kandrac.circularview.PictureRingRenderer} and {@link sk.kandrac.circularview.AutoRingRenderer}
+ * choosing one of them.
+ * <p/>
+ * Renderer may cache data derived from geometry until {@link RingGeometry#getVersion()} changes.
+ * Single renderer instance should not be shared by more views.
+ */
+public interface RingRenderer {
+
+    /**
+     * Draw outer circle.
+     *
+     * @param canvas       to draw to
+     * @param geometry     bounds and slices of the circle
+     * @param rotation     rotation of circle in degrees
+     * @param defaultPaint paint used when there are no slices
+     */
+    void draw(Canvas canvas, RingGeometry geometry, float rotation, Paint defaultPaint);
+}
@@ -0,0 +1,119 @@
+package sk.kandrac.circularview;
+
+/**
+ * Immutable-by-convention copy of data displayed in outer circle (score and color of each item
+ * plus current rotation). Snapshot may be obtained from {@link CircularView#getSnapshot(RingSnapshot)}
+ * or filled manually and passed to {@link sk.kandrac.circularview.CircularRenderer} on any thread.
+ * <p/>
+ * Backing arrays are reused after {@link #clear()}, so one snapshot instance may be refilled many
+ * times without allocations.
+ */
+public class RingSnapshot {
+
+    private float[] scores;
+    private int[] colors;
+    private int count;
+    private int scroll;
+
+    // incremented on every change of items (not scroll)
+    private int version;
+
+    public RingSnapshot() {
+        this(8);
+    }
+
+    /**
+     * @param capacity initial count of items snapshot can hold without growing
+     */
+    public RingSnapshot(int capacity) {
+        scores = new float[capacity];
+        colors = new int[capacity];
+    }
+
+    /**
+     * Append item to snapshot.
+     *
+     * @param score score of item
+     * @param color color representing item
+     * @return this snapshot
+     */
+    public RingSnapshot add(float score, int color) {
+        if (count == scores.length) {
+            int newCapacity = Math.max(8, count * 2);
+            float[] newScores = new float[newCapacity];
+            int[] newColors = new int[newCapacity];
+            System.arraycopy(scores, 0, newScores, 0, count);
+            System.arraycopy(colors, 0, newColors, 0, count);
+            scores = newScores;
+            colors = newColors;
+        }
+        scores[count] = score;
+        colors[count] = color;
+        count++;
+        version++;
+        return this;
+    }
+
+    /**
+     * Replace content of this snapshot by content of other one. Allocated capacity is reused.
+     *
+     * @param other snapshot to copy
+     * @return this snapshot
+     */
+    public RingSnapshot set(RingSnapshot other) {
+        clear();
+        for (int i = 0; i < other.count; i++) {
+            add(other.scores[i], other.colors[i]);
+        }
+        scroll = other.scroll;
+        return this;
+    }
+
+    /**
+     * Remove all items and reset rotation. Allocated capacity is kept.
+     *
+     * @return this snapshot
+     */
+    public RingSnapshot clear() {
+        count = 0;
+        scroll = 0;
+        version++;
+        return this;
+    }
+
+    /**
+     * @param scroll rotation of circle in degrees
+     * @return this snapshot
+     */
+    public RingSnapshot setScroll(int scroll) {
+        this.scroll = scroll;
+        return this;
+    }
+
+    public int getScroll() {
+        return scroll;
+    }
+
+    /**
+     * @return number changed whenever items of snapshot change
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public float getScore(int index) {
+        return scores[index];
+    }
+
+    public int getColor(int index) {
+        return colors[index];
+    }
+
+    float[] getScores() {
+        return scores;
+    }
+}
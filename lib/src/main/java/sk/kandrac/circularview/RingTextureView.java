@@ -0,0 +1,245 @@
+package sk.kandrac.circularview;
+
+import android.annotation.TargetApi;
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.PorterDuff;
+import android.graphics.SurfaceTexture;
+import android.os.Build;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.util.AttributeSet;
+import android.view.TextureView;
+
+/**
+ * Outer circle rendered on dedicated thread into {@link android.view.TextureView}. Data are passed
+ * as {@link sk.kandrac.circularview.RingSnapshot} and drawn by {@link sk.kandrac.circularview.CircularRenderer},
+ * so the ring looks the same as in {@link CircularView}. Snapshots and scroll may be set from any
+ * thread; updates arriving faster than the ring is drawn are merged, only the latest one is drawn.
+ * <p/>
+ * View may be used standalone (e.g. dashboards with many rings updated at high rate) or inside
+ * {@link CircularView} (see {@link CircularView#setRenderThreadEnabled(boolean)}). Requires
+ * hardware accelerated window.
+ */
+@TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH)
+public class RingTextureView extends TextureView implements TextureView.SurfaceTextureListener {
+
+    private final Object lock = new Object();
+
+    // latest data set by producers (guarded by lock)
+    private RingSnapshot pending = new RingSnapshot();
+    private boolean pendingChanged;
+    private int pendingScroll;
+
+    // data owned by render thread
+    private RingSnapshot drawing = new RingSnapshot();
+
+    // renderer configuration (guarded by lock), applied on render thread before drawing
+    private int outerWidth;
+    private int ringPadding;
+    private int defaultColor;
+    private boolean configChanged = true;
+
+    // render thread state (guarded by lock)
+    private HandlerThread thread;
+    private Handler handler;
+    private boolean drawScheduled;
+    private int surfaceSize;
+
+    // used only by render thread
+    private CircularRenderer renderer;
+
+    private final Runnable drawRunnable = new Runnable() {
+        @Override
+        public void run() {
+            drawFrame();
+        }
+    };
+
+    public RingTextureView(Context context) {
+        this(context, null);
+    }
+
+    public RingTextureView(Context context, AttributeSet attrs) {
+        super(context, attrs);
+        setOpaque(false);
+        setSurfaceTextureListener(this);
+        defaultColor = Color.BLACK;
+    }
+
+    /**
+     * Set data to be drawn. Snapshot is copied, so caller may reuse it right after the call. May be
+     * called from any thread.
+     *
+     * @param snapshot data to draw
+     */
+    public void setSnapshot(RingSnapshot snapshot) {
+        synchronized (lock) {
+            pending.set(snapshot);
+            pendingScroll = snapshot.getScroll();
+            pendingChanged = true;
+            scheduleDraw();
+        }
+    }
+
+    /**
+     * Hand snapshot over to render thread without copying it. Caller must not touch given snapshot
+     * after the call, returned snapshot is no longer used by render thread and may be refilled and
+     * exchanged next time. Must not be mixed with {@link #setSnapshot(RingSnapshot)} from other
+     * threads.
+     *
+     * @param snapshot data to draw
+     * @return snapshot free to be reused by caller
+     */
+    public RingSnapshot exchangeSnapshot(RingSnapshot snapshot) {
+        synchronized (lock) {
+            RingSnapshot free = pending;
+            pending = snapshot;
+            pendingScroll = snapshot.getScroll();
+            pendingChanged = true;
+            scheduleDraw();
+            return free;
+        }
+    }
+
+    /**
+     * Rotate displayed ring. May be called from any thread.
+     *
+     * @param scroll rotation of circle in degrees
+     */
+    public void setRingScroll(int scroll) {
+        synchronized (lock) {
+            if (pendingScroll == scroll) return;
+            pendingScroll = scroll;
+            scheduleDraw();
+        }
+    }
+
+    /**
+     * @param width width of outer circle in pixels
+     */
+    public void setOuterWidth(int width) {
+        synchronized (lock) {
+            if (outerWidth == width) return;
+            outerWidth = width;
+            configChanged = true;
+            scheduleDraw();
+        }
+    }
+
+    /**
+     * @param padding space left on each side of drawing area
+     */
+    public void setRingPadding(int padding) {
+        synchronized (lock) {
+            if (ringPadding == padding) return;
+            ringPadding = padding;
+            configChanged = true;
+            scheduleDraw();
+        }
+    }
+
+    /**
+     * @param color displayed if snapshot contains no items
+     */
+    public void setDefaultPaintColor(int color) {
+        synchronized (lock) {
+            if (defaultColor == color) return;
+            defaultColor = color;
+            configChanged = true;
+            scheduleDraw();
+        }
+    }
+
+    /**
+     * Post draw to render thread unless it was already posted. Must hold lock.
+     */
+    private void scheduleDraw() {
+        if (drawScheduled || handler == null) return;
+        drawScheduled = true;
+        handler.post(drawRunnable);
+    }
+
+    /**
+     * Take latest data and draw them into the surface. Runs on render thread.
+     */
+    private void drawFrame() {
+        final int size;
+        synchronized (lock) {
+            drawScheduled = false;
+            if (pendingChanged) {
+                RingSnapshot swap = drawing;
+                drawing = pending;
+                pending = swap;
+                pendingChanged = false;
+            }
+            drawing.setScroll(pendingScroll);
+            if (configChanged) {
+                if (renderer == null) renderer = new CircularRenderer(outerWidth, defaultColor);
+                renderer.setOuterWidth(outerWidth);
+                renderer.setPadding(ringPadding);
+                renderer.setDefaultPaintColor(defaultColor);
+                configChanged = false;
+            }
+            size = surfaceSize;
+        }
+        if (size <= 0) return;
+
+        Canvas canvas = lockCanvas();
+        if (canvas == null) return;
+        try {
+            canvas.drawColor(Color.TRANSPARENT, PorterDuff.Mode.CLEAR);
+            renderer.render(drawing, canvas, size);
+        } finally {
+            unlockCanvasAndPost(canvas);
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureAvailable(SurfaceTexture surface, int width, int height) {
+        synchronized (lock) {
+            surfaceSize = Math.min(width, height);
+            thread = new HandlerThread("RingTextureView");
+            thread.start();
+            handler = new Handler(thread.getLooper());
+            // data set before surface was available are still pending and drawn now
+            configChanged = true;
+            scheduleDraw();
+        }
+    }
+
+    @Override
+    public void onSurfaceTextureSizeChanged(SurfaceTexture surface, int width, int height) {
+        synchronized (lock) {
+            surfaceSize = Math.min(width, height);
+            scheduleDraw();
+        }
+    }
+
+    @Override
+    public boolean onSurfaceTextureDestroyed(SurfaceTexture surface) {
+        final HandlerThread quitting;
+        synchronized (lock) {
+            quitting = thread;
+            thread = null;
+            handler = null;
+            drawScheduled = false;
+            surfaceSize = 0;
+        }
+        if (quitting != null) {
+            // wait until render thread stops touching the surface
+            quitting.quit();
+            try {
+                quitting.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void onSurfaceTextureUpdated(SurfaceTexture surface) {
+    }
+}
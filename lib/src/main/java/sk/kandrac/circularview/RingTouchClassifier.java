@@ -0,0 +1,62 @@
+package sk.kandrac.circularview;
+
+/**
+ * Classifies touch position into region of {@link CircularView}. Squared radii of both circles are
+ * cached when geometry changes, so classification takes constant time and does not need square
+ * root nor any allocation.
+ */
+public class RingTouchClassifier {
+
+    /**
+     * Position inside inner circle (the child)
+     */
+    public static final int INNER = 0;
+
+    /**
+     * Position on outer circle
+     */
+    public static final int RING = 1;
+
+    /**
+     * Position inside bounds of view, but outside of outer circle (padding and corners)
+     */
+    public static final int GAP = 2;
+
+    /**
+     * Position outside bounds of view
+     */
+    public static final int OUTSIDE = 3;
+
+    private float center;
+    private float innerRadiusSquared;
+    private float outerRadiusSquared;
+    private int size;
+
+    /**
+     * Cache radii of given geometry.
+     *
+     * @param geometry prepared geometry of view
+     * @param size     width and height of view
+     */
+    public void update(RingGeometry geometry, int size) {
+        this.center = geometry.center;
+        this.innerRadiusSquared = geometry.innerRadius * geometry.innerRadius;
+        this.outerRadiusSquared = geometry.outerRadius * geometry.outerRadius;
+        this.size = size;
+    }
+
+    /**
+     * @param x position relative to view
+     * @param y position relative to view
+     * @return one of {@link #INNER}, {@link #RING}, {@link #GAP}, {@link #OUTSIDE}
+     */
+    public int classify(float x, float y) {
+        if (x < 0 || y < 0 || x >= size || y >= size) return OUTSIDE;
+        final float xDist = x - center;
+        final float yDist = y - center;
+        final float distanceSquared = xDist * xDist + yDist * yDist;
+        if (distanceSquared <= innerRadiusSquared) return INNER;
+        if (distanceSquared <= outerRadiusSquared) return RING;
+        return GAP;
+    }
+}
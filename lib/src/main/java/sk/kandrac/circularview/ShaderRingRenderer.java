@@ -0,0 +1,68 @@
+package sk.kandrac.circularview;
+
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.SweepGradient;
+
+/**
+ * Draws whole circle with single arc filled by {@link android.graphics.SweepGradient} with hard
+ * color stops at slice boundaries. Cost of drawing does not depend on count of slices; gradient is
+ * rebuilt only when geometry changes and rotation only changes its matrix. Only colors of item
+ * paints are used.
+ */
+public class ShaderRingRenderer implements RingRenderer {
+
+    private final Paint paint;
+    private final Matrix matrix = new Matrix();
+
+    private SweepGradient shader;
+    private RingGeometry cachedGeometry;
+    private int cachedVersion;
+    private int[] colors = new int[0];
+    private float[] positions = new float[0];
+
+    public ShaderRingRenderer() {
+        paint = new Paint();
+        paint.setStyle(Paint.Style.STROKE);
+        paint.setAntiAlias(true);
+    }
+
+    @Override
+    public void draw(Canvas canvas, RingGeometry geometry, float rotation, Paint defaultPaint) {
+        if (geometry.count == 0 || geometry.outerWidth <= 0) {
+            geometry.drawRing(canvas, rotation, defaultPaint);
+            return;
+        }
+        if (geometry != cachedGeometry || geometry.version != cachedVersion) {
+            buildShader(geometry);
+        }
+        matrix.setRotate(rotation, geometry.center, geometry.center);
+        shader.setLocalMatrix(matrix);
+        canvas.drawArc(geometry.outerBounds, 0, 360, false, paint);
+    }
+
+    /**
+     * Create gradient with two stops per slice (at its start and end) of slice color.
+     */
+    private void buildShader(RingGeometry geometry) {
+        final int stops = geometry.count * 2;
+        if (colors.length != stops) {
+            colors = new int[stops];
+            positions = new float[stops];
+        }
+        for (int i = 0; i < geometry.count; i++) {
+            int color = geometry.paints[i].getColor();
+            colors[i * 2] = color;
+            colors[i * 2 + 1] = color;
+            positions[i * 2] = geometry.startAngles[i] / 360;
+            positions[i * 2 + 1] = Math.min(1, (geometry.startAngles[i] + geometry.sweepAngles[i]) / 360);
+        }
+        positions[stops - 1] = 1;
+        shader = new SweepGradient(geometry.center, geometry.center, colors, positions);
+        paint.setShader(shader);
+        paint.setStrokeWidth(geometry.outerWidth);
+        cachedGeometry = geometry;
+        cachedVersion = geometry.version;
+    }
+}